@@ -0,0 +1,147 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.benchmark;
+
+import java.io.File;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Logger;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger.Verbosity;
+
+/**
+ * Standalone timing harness for log message formatting. Replays the logging
+ * done whilst enumerating a set of mod containers, once through
+ * LiteLoaderLogger, which defers formatting until an appender renders the
+ * message, and once formatting each message with String.format before it is
+ * logged as LiteLoaderLogger used to. Both are timed with the INFO level
+ * enabled and disabled.
+ *
+ * <p>Console output from the LiteLoader logger is suppressed whilst running,
+ * the internal log tail still renders every enabled message. The debug calls
+ * only produce output when liteloader.debug is set, run with and without it to
+ * compare, and redirect stderr when it is set.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public abstract class LoggerBenchmark {
+	/**
+	 * Containers logged per simulated enumeration
+	 */
+	private static final int CONTAINERS = 200;
+
+	private static final int ENUMERATIONS = Integer.getInteger("liteloader.benchmark.enumerations", 2000);
+
+	private static final int WARMUP_ROUNDS = 3;
+
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Verbosity threshold, set explicitly so that the eager path can apply the
+	 * same check
+	 */
+	private static final Verbosity VERBOSITY = Verbosity.NORMAL;
+
+	private static final String[] PATHS = new String[LoggerBenchmark.CONTAINERS];
+
+	static {
+		for (int index = 0; index < LoggerBenchmark.CONTAINERS; index++) {
+			LoggerBenchmark.PATHS[index] = new File("mods" + File.separatorChar + "1.12.2", "mod_" + index + ".litemod").getPath();
+		}
+	}
+
+	public static void main(String[] args) {
+		Logger logger = LiteLoaderLogger.getLogger();
+		Level level = logger.getLevel();
+		boolean additive = logger.isAdditive();
+
+		System.out.printf("liteloader.debug=%s%n", LiteLoaderLogger.DEBUG);
+		System.out.printf("%-10s %18s %18s%n", "INFO", "Eager us/enum", "Deferred us/enum");
+
+		try {
+			LiteLoaderLogger.setVerbosity(LoggerBenchmark.VERBOSITY);
+			logger.setAdditive(false);
+			for (boolean enabled : new boolean[] { true, false }) {
+				logger.setLevel(enabled ? Level.INFO : Level.WARN);
+
+				for (int round = 0; round < LoggerBenchmark.WARMUP_ROUNDS; round++) {
+					LoggerBenchmark.time(true);
+					LoggerBenchmark.time(false);
+				}
+
+				long eager = 0L, deferred = 0L;
+				for (int round = 0; round < LoggerBenchmark.ROUNDS; round++) {
+					eager += LoggerBenchmark.time(true);
+					deferred += LoggerBenchmark.time(false);
+				}
+
+				double enumerations = (double)LoggerBenchmark.ENUMERATIONS * LoggerBenchmark.ROUNDS * 1000.0;
+				System.out.printf("%-10s %18.2f %18.2f%n", enabled ? "enabled" : "disabled", eager / enumerations, deferred / enumerations);
+			}
+		} finally {
+			logger.setLevel(level);
+			logger.setAdditive(additive);
+		}
+	}
+
+	/**
+	 * Run {@link #ENUMERATIONS} simulated enumerations and return the elapsed
+	 * time in nanoseconds
+	 */
+	private static long time(boolean eager) {
+		long start = System.nanoTime();
+		for (int enumeration = 0; enumeration < LoggerBenchmark.ENUMERATIONS; enumeration++) {
+			if (eager) {
+				LoggerBenchmark.enumerateEager();
+			} else {
+				LoggerBenchmark.enumerate();
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * The messages logged whilst enumerating, as logged by the enumerator
+	 */
+	private static void enumerate() {
+		LiteLoaderLogger.info("Discovering mods in %s", "mods");
+		for (int index = 0; index < LoggerBenchmark.CONTAINERS; index++) {
+			String path = LoggerBenchmark.PATHS[index];
+			LiteLoaderLogger.info("Considering valid mod file: %s", path);
+			LiteLoaderLogger.debug("Searching %s...", path);
+			LiteLoaderLogger.info(Verbosity.REDUCED, "Adding supported mod class prefix '%s'", "LiteMod");
+			LiteLoaderLogger.info("Found %d potential matches", index);
+		}
+		LiteLoaderLogger.info("Mod class discovery completed");
+	}
+
+	/**
+	 * The same messages, formatted before they are logged
+	 */
+	private static void enumerateEager() {
+		LoggerBenchmark.infoEager(Verbosity.NORMAL, "Discovering mods in %s", "mods");
+		for (int index = 0; index < LoggerBenchmark.CONTAINERS; index++) {
+			String path = LoggerBenchmark.PATHS[index];
+			LoggerBenchmark.infoEager(Verbosity.NORMAL, "Considering valid mod file: %s", path);
+			LiteLoaderLogger.debug("Searching %s...", path);
+			LoggerBenchmark.infoEager(Verbosity.REDUCED, "Adding supported mod class prefix '%s'", "LiteMod");
+			LoggerBenchmark.infoEager(Verbosity.NORMAL, "Found %d potential matches", index);
+		}
+		LoggerBenchmark.infoEager(Verbosity.NORMAL, "Mod class discovery completed");
+	}
+
+	/**
+	 * Log a message the way LiteLoaderLogger did before formatting was
+	 * deferred, the verbosity is checked but the message is formatted whether
+	 * or not the level is enabled
+	 */
+	private static void infoEager(Verbosity verbosity, String format, Object... data) {
+		if (verbosity.getLevel() <= LoggerBenchmark.VERBOSITY.getLevel()) {
+			LiteLoaderLogger.getLogger().log(Level.INFO, String.format(format, data));
+		}
+	}
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.benchmark;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.renderer.RenderGlobal;
+import net.minecraft.launchwrapper.Launch;
+import net.minecraft.launchwrapper.LaunchClassLoader;
+
+import com.mumfrey.liteloader.HUDRenderListener;
+import com.mumfrey.liteloader.PostRenderListener;
+import com.mumfrey.liteloader.PreRenderListener;
+import com.mumfrey.liteloader.RenderListener;
+import com.mumfrey.liteloader.core.event.HandlerList;
+import com.mumfrey.liteloader.interfaces.FastIterableDeque;
+
+/**
+ * Standalone timing harness for the per-frame render hooks. Runs the hooks
+ * which MixinEntityRenderer calls each frame with 0, 1 and 20 no-op listeners,
+ * once with the subscriber checks the mixin performs and once calling the
+ * hooks unconditionally, and prints the mean cost per frame.
+ *
+ * <p>The listener lists, subscriber flags and hook bodies of
+ * LiteLoaderEventBrokerClient are replicated by {@link RenderHooks} using the
+ * same HandlerList types, so the harness needs no game instance and does not
+ * replace the broker singleton. LiteLoaderEventBrokerClient#postRender is not
+ * included since it is not guarded and needs a live entity renderer.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public abstract class RenderHookBenchmark {
+	private static final int[] LISTENER_COUNTS = { 0, 1, 20 };
+
+	private static final int FRAMES = Integer.getInteger("liteloader.benchmark.frames", 1000000);
+
+	private static final int WARMUP_ROUNDS = 5;
+
+	private static final int ROUNDS = 10;
+
+	/**
+	 * Listener which does nothing, so that only the dispatch cost is measured
+	 */
+	static class NoOpListener implements RenderListener, PreRenderListener, PostRenderListener, HUDRenderListener {
+		private final int index;
+
+		NoOpListener(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getName() {
+			return "NoOpListener" + this.index;
+		}
+
+		@Override
+		public String getVersion() {
+			return "0";
+		}
+
+		@Override
+		public void init(File configPath) {
+		}
+
+		@Override
+		public void upgradeSettings(String version, File configPath, File oldConfigPath) {
+		}
+
+		@Override
+		public void onRender() {
+		}
+
+		@Override
+		public void onRenderGui(GuiScreen currentScreen) {
+		}
+
+		@Override
+		public void onSetupCameraTransform() {
+		}
+
+		@Override
+		public void onRenderWorld(float partialTicks) {
+		}
+
+		@Override
+		public void onSetupCameraTransform(float partialTicks, int pass, long timeSlice) {
+		}
+
+		@Override
+		public void onRenderSky(float partialTicks, int pass) {
+		}
+
+		@Override
+		public void onRenderClouds(float partialTicks, int pass, RenderGlobal renderGlobal) {
+		}
+
+		@Override
+		public void onRenderTerrain(float partialTicks, int pass) {
+		}
+
+		@Override
+		public void onPostRenderEntities(float partialTicks) {
+		}
+
+		@Override
+		public void onPostRender(float partialTicks) {
+		}
+
+		@Override
+		public void onPreRenderHUD(int screenWidth, int screenHeight) {
+		}
+
+		@Override
+		public void onPostRenderHUD(int screenWidth, int screenHeight) {
+		}
+	}
+
+	/**
+	 * Render listener lists, subscriber flags and hooks as implemented by
+	 * LiteLoaderEventBrokerClient
+	 */
+	static class RenderHooks {
+		private FastIterableDeque<RenderListener> renderListeners = new HandlerList<RenderListener>(RenderListener.class);
+		private FastIterableDeque<PreRenderListener> preRenderListeners = new HandlerList<PreRenderListener>(PreRenderListener.class);
+		private FastIterableDeque<PostRenderListener> postRenderListeners = new HandlerList<PostRenderListener>(PostRenderListener.class);
+		private FastIterableDeque<HUDRenderListener> hudRenderListeners = new HandlerList<HUDRenderListener>(HUDRenderListener.class);
+
+		private boolean hasRenderListeners, hasPreRenderListeners, hasPostRenderListeners, hasHUDRenderListeners;
+
+		private int screenWidth = 854;
+
+		private int screenHeight = 480;
+
+		void addListener(NoOpListener listener) {
+			this.renderListeners.add(listener);
+			this.hasRenderListeners = true;
+			this.preRenderListeners.add(listener);
+			this.hasPreRenderListeners = true;
+			this.postRenderListeners.add(listener);
+			this.hasPostRenderListeners = true;
+			this.hudRenderListeners.add(listener);
+			this.hasHUDRenderListeners = true;
+		}
+
+		boolean hasRenderListeners() {
+			return this.hasRenderListeners;
+		}
+
+		boolean hasPreRenderListeners() {
+			return this.hasPreRenderListeners;
+		}
+
+		boolean hasPostRenderListeners() {
+			return this.hasPostRenderListeners;
+		}
+
+		boolean hasHUDRenderListeners() {
+			return this.hasHUDRenderListeners;
+		}
+
+		void postRenderEntities(float partialTicks, long timeSlice) {
+			this.postRenderListeners.all().onPostRenderEntities(partialTicks);
+		}
+
+		void preRenderGUI(float partialTicks) {
+			this.renderListeners.all().onRenderGui(null);
+		}
+
+		void onSetupCameraTransform(int pass, float partialTicks, long timeSlice) {
+			this.renderListeners.all().onSetupCameraTransform();
+			this.preRenderListeners.all().onSetupCameraTransform(partialTicks, pass, timeSlice);
+		}
+
+		void onRenderHUD(float partialTicks) {
+			this.hudRenderListeners.all().onPreRenderHUD(this.screenWidth, this.screenHeight);
+		}
+
+		void postRenderHUD(float partialTicks) {
+			this.hudRenderListeners.all().onPostRenderHUD(this.screenWidth, this.screenHeight);
+		}
+
+		void onRenderWorld(float partialTicks, long timeSlice) {
+			this.preRenderListeners.all().onRenderWorld(partialTicks);
+		}
+
+		void onRenderSky(float partialTicks, int pass, long timeSlice) {
+			this.preRenderListeners.all().onRenderSky(partialTicks, pass);
+		}
+
+		void onRenderClouds(float partialTicks, int pass, RenderGlobal renderGlobal) {
+			this.preRenderListeners.all().onRenderClouds(partialTicks, pass, renderGlobal);
+		}
+
+		void onRenderTerrain(float partialTicks, int pass, long timeSlice) {
+			this.preRenderListeners.all().onRenderTerrain(partialTicks, pass);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (Launch.classLoader == null) {
+			// HandlerList reads listener bytecode through the LaunchClassLoader
+			// and defines the baked lists beneath it, delegate our own classes
+			// and the game classes to the application class loader so that the
+			// baked lists implement the same interfaces as the hooks use
+			List<URL> sources = new ArrayList<URL>();
+			for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+				sources.add(new File(path).toURI().toURL());
+			}
+
+			LaunchClassLoader classLoader = new LaunchClassLoader(sources.toArray(new URL[sources.size()]));
+			classLoader.addClassLoaderExclusion("com.mumfrey.");
+			classLoader.addClassLoaderExclusion("net.minecraft.");
+			Launch.classLoader = classLoader;
+		}
+
+		System.out.printf("%-10s %18s %18s%n", "Listeners", "Guarded ns/frame", "Unguarded ns/frame");
+		for (int listenerCount : RenderHookBenchmark.LISTENER_COUNTS) {
+			RenderHooks hooks = new RenderHooks();
+			for (int index = 0; index < listenerCount; index++) {
+				hooks.addListener(new NoOpListener(index));
+			}
+
+			for (int round = 0; round < RenderHookBenchmark.WARMUP_ROUNDS; round++) {
+				RenderHookBenchmark.time(hooks, true);
+				RenderHookBenchmark.time(hooks, false);
+			}
+
+			long guarded = 0L, unguarded = 0L;
+			for (int round = 0; round < RenderHookBenchmark.ROUNDS; round++) {
+				guarded += RenderHookBenchmark.time(hooks, true);
+				unguarded += RenderHookBenchmark.time(hooks, false);
+			}
+
+			double frames = (double)RenderHookBenchmark.FRAMES * RenderHookBenchmark.ROUNDS;
+			System.out.printf("%-10d %18.2f %18.2f%n", listenerCount, guarded / frames, unguarded / frames);
+		}
+	}
+
+	/**
+	 * Run {@link #FRAMES} frames and return the elapsed time in nanoseconds
+	 */
+	private static long time(RenderHooks hooks, boolean guarded) {
+		long start = System.nanoTime();
+		for (int frame = 0; frame < RenderHookBenchmark.FRAMES; frame++) {
+			float partialTicks = (frame & 0xFF) / 256.0F;
+			if (guarded) {
+				RenderHookBenchmark.guardedFrame(hooks, partialTicks, frame);
+			} else {
+				RenderHookBenchmark.unguardedFrame(hooks, partialTicks, frame);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * The hooks called in one frame, with the checks MixinEntityRenderer
+	 * performs before each call
+	 */
+	private static void guardedFrame(RenderHooks hooks, float partialTicks, long timeSlice) {
+		if (hooks.hasPreRenderListeners()) {
+			hooks.onRenderWorld(partialTicks, timeSlice);
+		}
+		if (hooks.hasRenderListeners() || hooks.hasPreRenderListeners()) {
+			hooks.onSetupCameraTransform(2, partialTicks, timeSlice);
+		}
+		if (hooks.hasPreRenderListeners()) {
+			hooks.onRenderSky(partialTicks, 2, timeSlice);
+		}
+		if (hooks.hasPreRenderListeners()) {
+			hooks.onRenderTerrain(partialTicks, 2, timeSlice);
+		}
+		if (hooks.hasPostRenderListeners()) {
+			hooks.postRenderEntities(partialTicks, timeSlice);
+		}
+		if (hooks.hasPreRenderListeners()) {
+			hooks.onRenderClouds(partialTicks, 2, null);
+		}
+		if (hooks.hasHUDRenderListeners()) {
+			hooks.onRenderHUD(partialTicks);
+		}
+		if (hooks.hasHUDRenderListeners()) {
+			hooks.postRenderHUD(partialTicks);
+		}
+		if (hooks.hasRenderListeners()) {
+			hooks.preRenderGUI(partialTicks);
+		}
+	}
+
+	/**
+	 * The hooks called in one frame without any checks
+	 */
+	private static void unguardedFrame(RenderHooks hooks, float partialTicks, long timeSlice) {
+		hooks.onRenderWorld(partialTicks, timeSlice);
+		hooks.onSetupCameraTransform(2, partialTicks, timeSlice);
+		hooks.onRenderSky(partialTicks, 2, timeSlice);
+		hooks.onRenderTerrain(partialTicks, 2, timeSlice);
+		hooks.postRenderEntities(partialTicks, timeSlice);
+		hooks.onRenderClouds(partialTicks, 2, null);
+		hooks.onRenderHUD(partialTicks);
+		hooks.postRenderHUD(partialTicks);
+		hooks.preRenderGUI(partialTicks);
+	}
+}
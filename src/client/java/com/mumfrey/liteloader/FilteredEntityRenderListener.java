@@ -0,0 +1,30 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader;
+
+import java.util.List;
+
+import net.minecraft.entity.Entity;
+
+/**
+ * Interface for entity render listeners which are only interested in some
+ * kinds of entity. Unlike a plain {@link EntityRenderListener}, which is
+ * called for every entity rendered, a filtered listener is only called for
+ * entities which are instances of one of the classes it handles. Listeners
+ * which only care about a few kinds of entity should implement this
+ * interface since rendering entities nobody is listening for then costs
+ * nothing.
+ *
+ * @author Adam Mummery-Smith
+ */
+public interface FilteredEntityRenderListener extends EntityRenderListener {
+	/**
+	 * Get the entity classes to receive render callbacks for, subclasses of
+	 * the returned classes are also matched. The list is read once when the
+	 * listener is registered.
+	 */
+	public abstract List<Class<? extends Entity>> getHandledEntities();
+}
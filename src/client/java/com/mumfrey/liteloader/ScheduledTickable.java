@@ -0,0 +1,37 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader;
+
+/**
+ * Interface for tickable mods which do not need to be called every frame.
+ * A scheduled tickable can limit the rate at which it is called, limit the
+ * time it may spend per frame, or both. Both values are read once when the
+ * mod is registered.
+ *
+ * <p>When frames are skipped the <tt>clock</tt> argument passed to
+ * {@link #onTick} is true if a game tick occurred at any point since the
+ * previous call, so mods which act on game ticks do not miss them entirely.
+ * Scheduled tickables are called after all unscheduled tickables.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public interface ScheduledTickable extends Tickable {
+	/**
+	 * Get the number of times per second this mod should be called, return 0
+	 * to be called every frame. The rate can not exceed the frame rate. Mods
+	 * with the same rate are spread across frames rather than all being
+	 * called on the same frame.
+	 */
+	public abstract int getTickRate();
+
+	/**
+	 * Get the time in microseconds this mod may spend per frame, return 0 for
+	 * no limit. If a call takes longer than the budget the mod is skipped on
+	 * following frames until the overrun is repaid, overruns are reported in
+	 * the log.
+	 */
+	public abstract int getFrameBudget();
+}
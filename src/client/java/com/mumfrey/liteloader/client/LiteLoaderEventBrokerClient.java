@@ -5,6 +5,11 @@
  */
 package com.mumfrey.liteloader.client;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.lwjgl.input.Mouse;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
@@ -18,6 +23,7 @@ import com.mumfrey.liteloader.core.LiteLoader;
 import com.mumfrey.liteloader.core.LiteLoaderEventBroker;
 import com.mumfrey.liteloader.core.event.HandlerList;
 import com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp;
+import com.mumfrey.liteloader.core.event.TimingHandlerList;
 import com.mumfrey.liteloader.interfaces.FastIterableDeque;
 import com.mumfrey.liteloader.launch.LoaderProperties;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
@@ -70,6 +76,7 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	private int worldHashCode = 0;
 
 	private FastIterableDeque<Tickable> tickListeners;
+	private final TickScheduler tickScheduler = new TickScheduler();
 	private FastIterableDeque<GameLoopListener> loopListeners = new HandlerList<GameLoopListener>(GameLoopListener.class);
 	private FastIterableDeque<RenderListener> renderListeners = new HandlerList<RenderListener>(RenderListener.class);
 	private FastIterableDeque<PreRenderListener> preRenderListeners = new HandlerList<PreRenderListener>(PreRenderListener.class);
@@ -84,7 +91,27 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 		ReturnLogicOp.AND);
 	private FastIterableDeque<ScreenshotListener> screenshotListeners = new HandlerList<ScreenshotListener>(ScreenshotListener.class,
 		ReturnLogicOp.AND_BREAK_ON_FALSE);
-	private FastIterableDeque<EntityRenderListener> entityRenderListeners = new HandlerList<EntityRenderListener>(EntityRenderListener.class);
+
+	/**
+	 * Entity render listeners in registration order, mapped to the entity
+	 * classes they handle or to null for listeners which handle all entities
+	 */
+	private final Map<EntityRenderListener, List<Class<? extends Entity>>> entityRenderListeners
+		= new LinkedHashMap<EntityRenderListener, List<Class<? extends Entity>>>();
+
+	/**
+	 * Entity render listeners baked for each entity class, replaced whenever a
+	 * listener is added
+	 */
+	private volatile ClassValue<EntityRenderListener[]> bakedEntityRenderListeners = this.createEntityRenderListenerCache();
+
+	/**
+	 * Subscriber presence flags for the per-frame render hooks, set when the
+	 * first listener is added so that hooks can skip the broker entirely when
+	 * nothing is listening
+	 */
+	private boolean hasRenderListeners, hasPreRenderListeners, hasPostRenderListeners, hasHUDRenderListeners;
+
 	private FastIterableDeque<PlayerClickListener> playerClickListeners = new HandlerList<PlayerClickListener>(PlayerClickListener.class,
 		ReturnLogicOp.AND);
 
@@ -96,9 +123,8 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 
 		this.engineClient = engine;
 
-		// I'll just hope it's not necessary
-		// this.tickListeners = new ProfilingHandlerList<Tickable>(Tickable.class, this.engineClient.getProfiler());
-		this.tickListeners = new HandlerList<>(Tickable.class);
+		// Timings are available via ListenerTimings without threading the profiler through the list
+		this.tickListeners = new TimingHandlerList<Tickable>(Tickable.class);
 	}
 
 	public static LiteLoaderEventBrokerClient getInstance() {
@@ -146,6 +172,10 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 * @param tickable
 	 */
 	public void addTickListener(Tickable tickable) {
+		if (tickable instanceof ScheduledTickable && this.tickScheduler.add((ScheduledTickable)tickable)) {
+			return;
+		}
+
 		this.tickListeners.add(tickable);
 	}
 
@@ -168,6 +198,7 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public void addRenderListener(RenderListener renderListener) {
 		this.renderListeners.add(renderListener);
+		this.hasRenderListeners = true;
 	}
 
 	/**
@@ -175,6 +206,7 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public void addPreRenderListener(PreRenderListener preRenderListener) {
 		this.preRenderListeners.add(preRenderListener);
+		this.hasPreRenderListeners = true;
 	}
 
 	/**
@@ -182,6 +214,7 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public void addPostRenderListener(PostRenderListener postRenderListener) {
 		this.postRenderListeners.add(postRenderListener);
+		this.hasPostRenderListeners = true;
 	}
 
 	/**
@@ -196,6 +229,7 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public void addHUDRenderListener(HUDRenderListener hudRenderListener) {
 		this.hudRenderListeners.add(hudRenderListener);
+		this.hasHUDRenderListeners = true;
 	}
 
 	/**
@@ -237,7 +271,62 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 * @param entityRenderListener
 	 */
 	public void addEntityRenderListener(EntityRenderListener entityRenderListener) {
-		this.entityRenderListeners.add(entityRenderListener);
+		if (this.entityRenderListeners.containsKey(entityRenderListener)) {
+			return;
+		}
+
+		List<Class<? extends Entity>> handledEntities = null;
+		if (entityRenderListener instanceof FilteredEntityRenderListener) {
+			handledEntities = ((FilteredEntityRenderListener)entityRenderListener).getHandledEntities();
+			if (handledEntities == null || handledEntities.isEmpty()) {
+				LiteLoaderLogger.warning("Entity render listener %s does not handle any entities", entityRenderListener.getName());
+			}
+		}
+
+		this.entityRenderListeners.put(entityRenderListener, handledEntities);
+		this.bakedEntityRenderListeners = this.createEntityRenderListenerCache();
+	}
+
+	private ClassValue<EntityRenderListener[]> createEntityRenderListenerCache() {
+		return new ClassValue<EntityRenderListener[]>() {
+			@Override
+			protected EntityRenderListener[] computeValue(Class<?> entityClass) {
+				return LiteLoaderEventBrokerClient.this.bakeEntityRenderListeners(entityClass);
+			}
+		};
+	}
+
+	/**
+	 * Get the listeners which handle the specified entity class
+	 */
+	EntityRenderListener[] bakeEntityRenderListeners(Class<?> entityClass) {
+		List<EntityRenderListener> listeners = new ArrayList<EntityRenderListener>();
+		for (Map.Entry<EntityRenderListener, List<Class<? extends Entity>>> listener : this.entityRenderListeners.entrySet()) {
+			List<Class<? extends Entity>> handledEntities = listener.getValue();
+			if (handledEntities == null) {
+				listeners.add(listener.getKey());
+				continue;
+			}
+
+			for (Class<? extends Entity> handledEntity : handledEntities) {
+				if (handledEntity != null && handledEntity.isAssignableFrom(entityClass)) {
+					listeners.add(listener.getKey());
+					break;
+				}
+			}
+		}
+
+		return listeners.toArray(new EntityRenderListener[listeners.size()]);
+	}
+
+	/**
+	 * Get whether any entity render listeners handle the specified entity,
+	 * used to skip entity render callbacks entirely
+	 *
+	 * @param entity
+	 */
+	public boolean hasEntityRenderListeners(Entity entity) {
+		return this.bakedEntityRenderListeners.get(entity.getClass()).length > 0;
 	}
 
 	/**
@@ -283,6 +372,34 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 		this.viewportListeners.all().onViewportResized(currentResolution, minecraft.displayWidth, minecraft.displayHeight);
 	}
 
+	/**
+	 * Get whether any render listeners are registered
+	 */
+	public boolean hasRenderListeners() {
+		return this.hasRenderListeners;
+	}
+
+	/**
+	 * Get whether any pre render listeners are registered
+	 */
+	public boolean hasPreRenderListeners() {
+		return this.hasPreRenderListeners;
+	}
+
+	/**
+	 * Get whether any post render listeners are registered
+	 */
+	public boolean hasPostRenderListeners() {
+		return this.hasPostRenderListeners;
+	}
+
+	/**
+	 * Get whether any HUD render listeners are registered
+	 */
+	public boolean hasHUDRenderListeners() {
+		return this.hasHUDRenderListeners;
+	}
+
 	/**
 	 * Callback from the tick hook, pre render
 	 */
@@ -394,6 +511,9 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 
 		// Iterate tickable mods
 		this.tickListeners.all().onTick(minecraft, partialTicks, inGame, clock);
+		if (!this.tickScheduler.isEmpty()) {
+			this.tickScheduler.onTick(minecraft, partialTicks, inGame, clock);
+		}
 
 		// Detected world change
 		int worldHashCode = (minecraft.world != null) ? minecraft.world.hashCode() : 0;
@@ -505,7 +625,9 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public <T extends Entity> void onRenderEntity(RenderManager source, T entity, double xPos, double yPos, double zPos, float yaw,
 	                                              float partialTicks, Render<T> render) {
-		this.entityRenderListeners.all().onRenderEntity(render, entity, xPos, yPos, zPos, yaw, partialTicks);
+		for (EntityRenderListener listener : this.bakedEntityRenderListeners.get(entity.getClass())) {
+			listener.onRenderEntity(render, entity, xPos, yPos, zPos, yaw, partialTicks);
+		}
 	}
 
 	/**
@@ -520,7 +642,9 @@ public class LiteLoaderEventBrokerClient extends LiteLoaderEventBroker<Minecraft
 	 */
 	public <T extends Entity> void onPostRenderEntity(RenderManager source, T entity, double xPos, double yPos, double zPos, float yaw,
 	                                                  float partialTicks, Render<T> render) {
-		this.entityRenderListeners.all().onPostRenderEntity(render, entity, xPos, yPos, zPos, yaw, partialTicks);
+		for (EntityRenderListener listener : this.bakedEntityRenderListeners.get(entity.getClass())) {
+			listener.onPostRenderEntity(render, entity, xPos, yPos, zPos, yaw, partialTicks);
+		}
 	}
 
 	public boolean onClickMouse(EntityPlayerSP player, MouseButton button) {
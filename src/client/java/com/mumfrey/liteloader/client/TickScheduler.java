@@ -0,0 +1,213 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.mumfrey.liteloader.ScheduledTickable;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+import net.minecraft.client.Minecraft;
+
+/**
+ * Calls {@link ScheduledTickable}s according to their declared rate and
+ * frame budget. Scheduling only depends on the frame times and the measured
+ * duration of each call: rate limited mods are called when their next slot
+ * is due, with mods of the same rate given staggered slots, and mods which
+ * overrun their budget skip as many of their calls as it takes to repay the
+ * overrun, up to {@link #MAX_SKIPPED_FRAMES}.
+ *
+ * @author Adam Mummery-Smith
+ */
+final class TickScheduler {
+	/**
+	 * Most frames a mod can be skipped for to repay a single overrun
+	 */
+	private static final int MAX_SKIPPED_FRAMES = 20;
+
+	/**
+	 * Number of slots that mods with the same rate are spread across
+	 */
+	private static final int SLOTS = 8;
+
+	/**
+	 * Minimum time between overrun reports
+	 */
+	private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(60);
+
+	/**
+	 * Schedule state for a single mod
+	 */
+	static final class Entry {
+		final ScheduledTickable tickable;
+
+		final String name;
+
+		/**
+		 * Time between calls in nanoseconds, 0 to call every frame
+		 */
+		final long interval;
+
+		/**
+		 * Offset of this mod's slots from the first frame
+		 */
+		final long phase;
+
+		/**
+		 * Budget per frame in nanoseconds, 0 for no budget
+		 */
+		final long budget;
+
+		/**
+		 * Time of the next call, valid once the first frame has been seen
+		 */
+		long nextCall;
+
+		/**
+		 * Time over budget still to be repaid by skipping frames
+		 */
+		long debt;
+
+		/**
+		 * True if a game tick occurred since the previous call
+		 */
+		boolean clock;
+
+		long calls, skipped, overruns, worstNanos;
+
+		long reportedOverruns;
+
+		Entry(ScheduledTickable tickable, int tickRate, int frameBudget, int slot) {
+			this.tickable = tickable;
+			this.name = tickable.getName();
+			this.interval = TickScheduler.getInterval(tickRate);
+			this.phase = this.interval * (slot % TickScheduler.SLOTS) / TickScheduler.SLOTS;
+			this.budget = frameBudget > 0 ? TimeUnit.MICROSECONDS.toNanos(frameBudget) : 0L;
+		}
+
+		boolean isDue(long now) {
+			if (this.interval == 0L) {
+				return true;
+			}
+
+			if (now < this.nextCall) {
+				return false;
+			}
+
+			// Move to the next slot after now, calls missed whilst the game was
+			// stalled are dropped rather than made up
+			this.nextCall += ((now - this.nextCall) / this.interval + 1) * this.interval;
+			return true;
+		}
+
+		void onCalled(long elapsed) {
+			this.calls++;
+			this.clock = false;
+			this.worstNanos = Math.max(this.worstNanos, elapsed);
+
+			if (this.budget > 0L && elapsed > this.budget) {
+				this.overruns++;
+				this.debt = Math.min(this.debt + elapsed - this.budget, this.budget * TickScheduler.MAX_SKIPPED_FRAMES);
+			}
+		}
+	}
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	private long firstFrame = -1L;
+
+	private long lastReport;
+
+	/**
+	 * @param tickable
+	 * @return false if the tickable does not declare a rate or budget and
+	 *      should be called every frame as normal
+	 */
+	boolean add(ScheduledTickable tickable) {
+		int tickRate = tickable.getTickRate();
+		int frameBudget = tickable.getFrameBudget();
+		if (tickRate < 1 && frameBudget < 1) {
+			return false;
+		}
+
+		int slot = 0;
+		for (Entry entry : this.entries) {
+			if (entry.tickable == tickable) {
+				return true;
+			}
+
+			if (entry.interval > 0L && entry.interval == TickScheduler.getInterval(tickRate)) {
+				slot++;
+			}
+		}
+
+		Entry entry = new Entry(tickable, tickRate, frameBudget, slot);
+		if (this.firstFrame > -1L) {
+			entry.nextCall = System.nanoTime() + entry.phase;
+		}
+
+		this.entries.add(entry);
+		LiteLoaderLogger.debug("Scheduling tickable %s at %d calls per second with a frame budget of %dus", entry.name, tickRate, frameBudget);
+		return true;
+	}
+
+	private static long getInterval(int tickRate) {
+		return tickRate > 0 ? TimeUnit.SECONDS.toNanos(1) / tickRate : 0L;
+	}
+
+	boolean isEmpty() {
+		return this.entries.isEmpty();
+	}
+
+	void onTick(Minecraft minecraft, float partialTicks, boolean inGame, boolean clock) {
+		long now = System.nanoTime();
+		if (this.firstFrame < 0L) {
+			this.firstFrame = now;
+			this.lastReport = now;
+			for (Entry entry : this.entries) {
+				entry.nextCall = now + entry.phase;
+			}
+		}
+
+		for (int i = 0; i < this.entries.size(); i++) {
+			Entry entry = this.entries.get(i);
+			entry.clock |= clock;
+
+			if (!entry.isDue(now)) {
+				continue;
+			}
+
+			if (entry.debt > 0L) {
+				entry.debt = Math.max(0L, entry.debt - entry.budget);
+				entry.skipped++;
+				continue;
+			}
+
+			long start = System.nanoTime();
+			entry.tickable.onTick(minecraft, partialTicks, inGame, entry.clock);
+			entry.onCalled(System.nanoTime() - start);
+		}
+
+		if (now - this.lastReport > TickScheduler.REPORT_INTERVAL) {
+			this.lastReport = now;
+			this.reportOverruns();
+		}
+	}
+
+	private void reportOverruns() {
+		for (Entry entry : this.entries) {
+			long overruns = entry.overruns - entry.reportedOverruns;
+			if (overruns > 0L) {
+				entry.reportedOverruns = entry.overruns;
+				LiteLoaderLogger.warning("Tickable %s exceeded its frame budget of %dus %d time(s) in %d calls, worst call took %dus,"
+						+ " %d frame(s) skipped", entry.name, TimeUnit.NANOSECONDS.toMicros(entry.budget), overruns, entry.calls,
+						TimeUnit.NANOSECONDS.toMicros(entry.worstNanos), entry.skipped);
+			}
+		}
+	}
+}
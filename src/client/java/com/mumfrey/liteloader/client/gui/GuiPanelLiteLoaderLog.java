@@ -36,7 +36,7 @@ class GuiPanelLiteLoaderLog extends GuiPanel implements ScrollPanelContent {
 
 	private List<String> logEntries = new ArrayList<String>();
 
-	private long logIndex = -1;
+	private long logIndex = 0;
 
 	private GuiCheckbox chkScale;
 
@@ -67,8 +67,11 @@ class GuiPanelLiteLoaderLog extends GuiPanel implements ScrollPanelContent {
 	}
 
 	private void updateLog() {
-		this.logEntries = LiteLoaderLogger.getLogTail();
-		this.logIndex = LiteLoaderLogger.getLogIndex();
+		this.logIndex = LiteLoaderLogger.getLogTail(this.logIndex, this.logEntries);
+		int excess = this.logEntries.size() - LiteLoaderLogger.getLogTailSize();
+		if (excess > 0) {
+			this.logEntries.subList(0, excess).clear();
+		}
 		this.scrollPane.updateHeight();
 		this.scrollPane.scrollToBottom();
 	}
@@ -70,7 +70,7 @@ public class LoadingBar extends LoadingProgress {
 	private boolean calculatedColour = false;
 	private int barLuma = 0, r2 = 246, g2 = 136, b2 = 62;
 
-	private int logIndex = 0;
+	private long logIndex = 0;
 	private List<String> logTail = new ArrayList<String>();
 
 	public LoadingBar() {
@@ -330,7 +330,11 @@ public class LoadingBar extends LoadingProgress {
 
 	private void renderLogTail(int yPos) {
 		if (this.logIndex != LiteLoaderLogger.getLogIndex()) {
-			this.logTail = LiteLoaderLogger.getLogTail();
+			this.logIndex = LiteLoaderLogger.getLogTail(this.logIndex, this.logTail);
+			int excess = this.logTail.size() - LiteLoaderLogger.getLogTailSize();
+			if (excess > 0) {
+				this.logTail.subList(0, excess).clear();
+			}
 		}
 
 		for (int logIndex = this.logTail.size() - 1; yPos > 10 && logIndex >= 0; logIndex--) {
@@ -50,7 +50,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		target = "Lnet/minecraft/client/renderer/GlStateManager;clear(I)V"
 	))
 	private void onPreRenderGUI(float partialTicks, long nanoTime, CallbackInfo ci) {
-		this.broker.preRenderGUI(partialTicks);
+		if (this.broker.hasRenderListeners()) {
+			this.broker.preRenderGUI(partialTicks);
+		}
 	}
 
 	@Inject(method = "updateCameraAndRender(FJ)V", at = @At(
@@ -58,7 +60,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		target = "Lnet/minecraft/client/gui/GuiIngame;renderGameOverlay(F)V"
 	))
 	private void onRenderHUD(float partialTicks, long nanoTime, CallbackInfo ci) {
-		this.broker.onRenderHUD(partialTicks);
+		if (this.broker.hasHUDRenderListeners()) {
+			this.broker.onRenderHUD(partialTicks);
+		}
 	}
 
 	@Inject(method = "updateCameraAndRender(FJ)V", at = @At(
@@ -67,7 +71,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		target = "Lnet/minecraft/client/gui/GuiIngame;renderGameOverlay(F)V"
 	))
 	private void onPostRenderHUD(float partialTicks, long nanoTime, CallbackInfo ci) {
-		this.broker.postRenderHUD(partialTicks);
+		if (this.broker.hasHUDRenderListeners()) {
+			this.broker.postRenderHUD(partialTicks);
+		}
 	}
 
 	@Inject(method = "renderWorld(FJ)V", at = @At(
@@ -76,7 +82,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		ordinal = 0
 	))
 	private void onRenderWorld(float partialTicks, long timeSlice, CallbackInfo ci) {
-		this.broker.onRenderWorld(partialTicks, timeSlice);
+		if (this.broker.hasPreRenderListeners()) {
+			this.broker.onRenderWorld(partialTicks, timeSlice);
+		}
 	}
 
 	@Inject(method = "renderWorld(FJ)V", at = @At(
@@ -94,7 +102,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		args = "ldc=frustum"
 	))
 	private void onSetupCameraTransform(int pass, float partialTicks, long timeSlice, CallbackInfo ci) {
-		this.broker.onSetupCameraTransform(pass, partialTicks, timeSlice);
+		if (this.broker.hasRenderListeners() || this.broker.hasPreRenderListeners()) {
+			this.broker.onSetupCameraTransform(pass, partialTicks, timeSlice);
+		}
 	}
 
 	@Inject(method = "renderWorldPass(IFJ)V", at = @At(
@@ -103,7 +113,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		args = "ldc=sky"
 	))
 	private void onRenderSky(int pass, float partialTicks, long timeSlice, CallbackInfo ci) {
-		this.broker.onRenderSky(partialTicks, pass, timeSlice);
+		if (this.broker.hasPreRenderListeners()) {
+			this.broker.onRenderSky(partialTicks, pass, timeSlice);
+		}
 	}
 
 	@Inject(method = "renderWorldPass(IFJ)V", at = @At(
@@ -112,7 +124,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		args = "ldc=terrain"
 	))
 	private void onRenderTerrain(int pass, float partialTicks, long timeSlice, CallbackInfo ci) {
-		this.broker.onRenderTerrain(partialTicks, pass, timeSlice);
+		if (this.broker.hasPreRenderListeners()) {
+			this.broker.onRenderTerrain(partialTicks, pass, timeSlice);
+		}
 	}
 
 	@Inject(method = "renderWorldPass(IFJ)V", at = @At(
@@ -121,7 +135,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		args = "ldc=litParticles"
 	))
 	private void onPostRenderEntities(int pass, float partialTicks, long timeSlice, CallbackInfo ci) {
-		this.broker.postRenderEntities(partialTicks, timeSlice);
+		if (this.broker.hasPostRenderListeners()) {
+			this.broker.postRenderEntities(partialTicks, timeSlice);
+		}
 	}
 
 	@Inject(method = "renderCloudsCheck(Lnet/minecraft/client/renderer/RenderGlobal;FIDDD)V", at = @At(
@@ -129,7 +145,9 @@ public abstract class MixinEntityRenderer implements IEntityRenderer {
 		target = "Lnet/minecraft/profiler/Profiler;endStartSection(Ljava/lang/String;)V"
 	))
 	private void onRenderClouds(RenderGlobal renderGlobalIn, float partialTicks, int pass, double x, double y, double z, CallbackInfo ci) {
-		this.broker.onRenderClouds(partialTicks, pass, renderGlobalIn);
+		if (this.broker.hasPreRenderListeners()) {
+			this.broker.onRenderClouds(partialTicks, pass, renderGlobalIn);
+		}
 	}
 
 	@Override
@@ -42,6 +42,11 @@ public abstract class MixinRenderManager implements IRenderManager {
 			this.broker = LiteLoaderEventBrokerClient.getInstance();
 		}
 
+		if (!this.broker.hasEntityRenderListeners(entity)) {
+			render.doRender(entity, x, y, z, entityYaw, partialTicks);
+			return;
+		}
+
 		this.broker.onRenderEntity((RenderManager) (Object) this, entity, x, y, z, entityYaw, partialTicks, render);
 		render.doRender(entity, x, y, z, entityYaw, partialTicks);
 		this.broker.onPostRenderEntity((RenderManager) (Object) this, entity, x, y, z, entityYaw, partialTicks, render);
@@ -1,10 +1,17 @@
 package com.mumfrey.webprefs.framework;
 
 import java.net.Proxy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.minecraft.util.Session;
 
@@ -14,7 +21,107 @@ import com.mumfrey.webprefs.interfaces.IWebPreferencesProvider;
 import com.mumfrey.webprefs.interfaces.IWebPreferencesService;
 import com.mumfrey.webprefs.interfaces.IWebPreferencesServiceMonitor;
 
+/**
+ * Queues requests and dispatches them to the service. Requests are coalesced
+ * whilst they are waiting: a get or set for the same client, UUID and privacy
+ * as a request which is still queued is merged into the queued request,
+ * unless a request of the other type has been queued behind it since merging
+ * would then reorder the two. This thread only dispatches requests, they are
+ * processed by a small pool of worker threads so that a slow request does not
+ * hold up requests for other UUIDs. Only one request per UUID is in flight at
+ * a time, so requests for the same UUID are processed in the order they were
+ * queued.
+ */
 public class WebPreferencesProvider extends Thread implements IWebPreferencesProvider, IWebPreferencesServiceMonitor {
+	/**
+	 * Number of requests which can be in flight at once, this should not
+	 * exceed the JDK's keep-alive connection limit (http.maxConnections,
+	 * default 5) or connections will not be reused
+	 */
+	private static final int WORKER_THREADS = Math.max(1, Integer.getInteger("liteloader.webprefs.workers", 4));
+
+	private static final int MAX_QUEUED_REQUESTS = 2048;
+
+	/**
+	 * Identifies requests which can be merged
+	 */
+	static final class RequestKey {
+		final boolean isSet;
+
+		final IWebPreferencesClient client;
+
+		final String uuid;
+
+		final boolean isPrivate;
+
+		RequestKey(boolean isSet, IWebPreferencesClient client, String uuid, boolean isPrivate) {
+			this.isSet = isSet;
+			this.client = client;
+			this.uuid = uuid;
+			this.isPrivate = isPrivate;
+		}
+
+		/**
+		 * Get the key for requests of the other type
+		 */
+		RequestKey getOpposite() {
+			return new RequestKey(!this.isSet, this.client, this.uuid, this.isPrivate);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RequestKey)) {
+				return false;
+			}
+
+			RequestKey other = (RequestKey)obj;
+			return this.isSet == other.isSet && this.client == other.client && this.isPrivate == other.isPrivate
+					&& (this.uuid == null ? other.uuid == null : this.uuid.equals(other.uuid));
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * System.identityHashCode(this.client) + (this.uuid != null ? this.uuid.hashCode() : 0)) * 4
+					+ (this.isSet ? 2 : 0) + (this.isPrivate ? 1 : 0);
+		}
+	}
+
+	/**
+	 * A queued request and the keys and values merged into it
+	 */
+	static final class QueuedRequest {
+		final RequestKey key;
+
+		final WebPreferencesServiceTask task;
+
+		final Set<String> keys = new HashSet<String>();
+
+		final Map<String, String> values = new HashMap<String, String>();
+
+		boolean merged;
+
+		QueuedRequest(RequestKey key, WebPreferencesServiceTask task) {
+			this.key = key;
+			this.task = task;
+		}
+
+		/**
+		 * Get the task to submit, replacing the original request with one for
+		 * the merged keys or values if anything was merged
+		 */
+		WebPreferencesServiceTask getTask() {
+			if (this.merged) {
+				if (this.key.isSet) {
+					this.task.setRequest(new WebPreferencesRequestSet(this.task, this.key.uuid, this.values, this.key.isPrivate));
+				} else {
+					this.task.setRequest(new WebPreferencesRequestGet(this.task, this.key.uuid, this.keys, this.key.isPrivate));
+				}
+			}
+
+			return this.task;
+		}
+	}
+
 	private final IWebPreferencesService service;
 
 	private final String hostName;
@@ -27,7 +134,32 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 
 	private volatile boolean active = true;
 
-	private final BlockingQueue<WebPreferencesServiceTask> tasks = new LinkedBlockingQueue<WebPreferencesServiceTask>(2048);
+	/**
+	 * Queued requests in submission order, also used as the lock for the queue
+	 */
+	private final LinkedList<QueuedRequest> queue = new LinkedList<QueuedRequest>();
+
+	/**
+	 * Queued requests which later requests can still be merged into, a
+	 * request stops being mergeable when it is dispatched or when a request of
+	 * the other type is queued behind it
+	 */
+	private final Map<RequestKey, QueuedRequest> mergeable = new HashMap<RequestKey, QueuedRequest>();
+
+	/**
+	 * UUIDs with a request in flight, further requests for these UUIDs are
+	 * held in the queue until the request completes
+	 */
+	private final Set<String> inFlight = new HashSet<String>();
+
+	/**
+	 * Permits for requests in flight, a request is only taken from the queue
+	 * when a worker is free so that requests stay mergeable for as long as
+	 * possible
+	 */
+	private final Semaphore workerSlots = new Semaphore(WebPreferencesProvider.WORKER_THREADS);
+
+	private final ExecutorService workers;
 
 	public WebPreferencesProvider(Proxy proxy, Session session, String hostName, int maxFailedRequestsCount) {
 		this.service = new WebPreferencesService(proxy, session);
@@ -37,6 +169,18 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 		this.session = session;
 		this.failureThreshold = maxFailedRequestsCount;
 
+		final String threadName = "WebPreferencesProvider worker thread [" + hostName + "] #";
+		this.workers = Executors.newFixedThreadPool(WebPreferencesProvider.WORKER_THREADS, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, threadName + this.threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
 		this.setName("WebPreferencesProvider daemon thread [" + hostName + "]");
 		this.setDaemon(true);
 		this.start();
@@ -54,21 +198,89 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 	public void run() {
 		try {
 			while (this.active) {
-				WebPreferencesServiceTask task = this.tasks.take();
+				this.workerSlots.acquire();
+
+				QueuedRequest request = null;
+				synchronized (this.queue) {
+					while (this.active && (request = this.takeNextRequest()) == null) {
+						this.queue.wait();
+					}
+
+					if (!this.active) {
+						break;
+					}
+				}
+
+				this.dispatch(request);
+			}
+		} catch (InterruptedException ex) {
+			if (this.active) {
+				ex.printStackTrace();
+			}
+		}
+
+		this.workers.shutdown();
+	}
+
+	/**
+	 * Remove and return the oldest queued request for a UUID which has no
+	 * request in flight, must be called with the queue lock held
+	 */
+	private QueuedRequest takeNextRequest() {
+		for (Iterator<QueuedRequest> iter = this.queue.iterator(); iter.hasNext();) {
+			QueuedRequest request = iter.next();
+			if (this.inFlight.add(request.key.uuid)) {
+				iter.remove();
+				if (this.mergeable.get(request.key) == request) {
+					this.mergeable.remove(request.key);
+				}
+				return request;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Called when a request is no longer in flight
+	 */
+	private void onRequestCompleted(QueuedRequest request) {
+		synchronized (this.queue) {
+			this.inFlight.remove(request.key.uuid);
+			this.queue.notifyAll();
+		}
+
+		this.workerSlots.release();
+	}
+
+	private void dispatch(final QueuedRequest request) {
+		final WebPreferencesServiceTask task;
+		try {
+			task = request.getTask();
+		} catch (Throwable th) {
+			this.onRequestCompleted(request);
+			th.printStackTrace();
+			this.onRequestFailed(th, 1);
+			return;
+		}
+
+		this.workers.execute(new Runnable() {
+			@Override
+			public void run() {
+				WebPreferencesProvider provider = WebPreferencesProvider.this;
 				try {
-					LiteLoaderLogger.debug("WebPreferencesProvider [%s] is processing %s for %s", this.hostName,
+					LiteLoaderLogger.debug("WebPreferencesProvider [%s] is processing %s for %s", provider.hostName,
 						task.getClass().getSimpleName(), task.getRequest().getUUID());
-					this.service.submit(task.getRequest());
+					provider.service.submit(task.getRequest());
 				} catch (Throwable th) {
-					if (th instanceof InterruptedException) throw (InterruptedException) th;
 					th.printStackTrace();
 
-					this.onRequestFailed(th, 1);
+					provider.onRequestFailed(th, 1);
+				} finally {
+					provider.onRequestCompleted(request);
 				}
 			}
-		} catch (InterruptedException ex) {
-			ex.printStackTrace();
-		}
+		});
 	}
 
 	@Override
@@ -82,12 +294,20 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 	}
 
 	private void registerError(int severity) {
-		this.failureCount += severity;
-		if (this.failureCount >= this.failureThreshold) {
-			LiteLoaderLogger.warning("WebPreferencesProvider for " + this.hostName + " is terminating. Too many failed requests.");
-			this.active = false;
-			this.tasks.clear();
-			this.interrupt();
+		synchronized (this.queue) {
+			if (!this.active) {
+				return;
+			}
+
+			this.failureCount += severity;
+			if (this.failureCount >= this.failureThreshold) {
+				LiteLoaderLogger.warning("WebPreferencesProvider for " + this.hostName + " is terminating. Too many failed requests.");
+				this.active = false;
+				this.queue.clear();
+				this.mergeable.clear();
+				this.queue.notifyAll();
+				this.interrupt();
+			}
 		}
 	}
 
@@ -97,9 +317,28 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 			return false;
 		}
 
-		WebPreferencesServiceTask task = new WebPreferencesServiceTaskGet(this, client);
-		task.setRequest(new WebPreferencesRequestGet(task, uuid, keys, getPrivate));
-		return this.tasks.offer(task);
+		RequestKey key = new RequestKey(false, client, uuid, getPrivate);
+		synchronized (this.queue) {
+			QueuedRequest queued = this.mergeable.get(key);
+			if (queued != null) {
+				// Validate the new keys before merging them
+				new WebPreferencesRequestGet(queued.task, uuid, keys, getPrivate);
+				queued.keys.addAll(keys);
+				queued.merged = true;
+				return true;
+			}
+
+			if (this.queue.size() >= WebPreferencesProvider.MAX_QUEUED_REQUESTS) {
+				return false;
+			}
+
+			WebPreferencesServiceTask task = new WebPreferencesServiceTaskGet(this, client);
+			task.setRequest(new WebPreferencesRequestGet(task, uuid, keys, getPrivate));
+			queued = new QueuedRequest(key, task);
+			queued.keys.addAll(keys);
+			this.enqueue(queued);
+			return true;
+		}
 	}
 
 	@Override
@@ -108,9 +347,41 @@ public class WebPreferencesProvider extends Thread implements IWebPreferencesPro
 			return false;
 		}
 
-		WebPreferencesServiceTask task = new WebPreferencesServiceTaskSet(this, client);
-		task.setRequest(new WebPreferencesRequestSet(task, uuid, values, setPrivate));
-		return this.tasks.offer(task);
+		RequestKey key = new RequestKey(true, client, uuid, setPrivate);
+		synchronized (this.queue) {
+			QueuedRequest queued = this.mergeable.get(key);
+			if (queued != null) {
+				// Validate the new values before merging them, later values win
+				new WebPreferencesRequestSet(queued.task, uuid, values, setPrivate);
+				queued.values.putAll(values);
+				queued.merged = true;
+				return true;
+			}
+
+			if (this.queue.size() >= WebPreferencesProvider.MAX_QUEUED_REQUESTS) {
+				return false;
+			}
+
+			WebPreferencesServiceTask task = new WebPreferencesServiceTaskSet(this, client);
+			task.setRequest(new WebPreferencesRequestSet(task, uuid, values, setPrivate));
+			queued = new QueuedRequest(key, task);
+			queued.values.putAll(values);
+			this.enqueue(queued);
+			return true;
+		}
+	}
+
+	/**
+	 * Add a new request to the queue, must be called with the queue lock held
+	 */
+	private void enqueue(QueuedRequest request) {
+		this.queue.add(request);
+		this.mergeable.put(request.key, request);
+
+		// Requests of the other type queued ahead of this one must not be
+		// merged into any more, the merged request would overtake this one
+		this.mergeable.remove(request.key.getOpposite());
+		this.queue.notifyAll();
 	}
 
 	@Override
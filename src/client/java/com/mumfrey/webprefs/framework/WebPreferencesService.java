@@ -11,11 +11,10 @@ import java.net.Proxy;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLEncoder;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import net.minecraft.util.Session;
 
@@ -31,6 +30,13 @@ import com.mumfrey.webprefs.interfaces.IWebPreferencesResponse;
 import com.mumfrey.webprefs.interfaces.IWebPreferencesService;
 import com.mumfrey.webprefs.interfaces.IWebPreferencesServiceMonitor;
 
+/**
+ * Performs requests against the preferences server. Requests may be submitted
+ * from several worker threads at once. Connections are made with
+ * HttpURLConnection which keeps idle connections alive and reuses them for
+ * later requests to the same host, provided that each response is read in
+ * full and its stream closed and the connection is never disconnected.
+ */
 class WebPreferencesService implements IWebPreferencesService {
 	private static final int TIMEOUT_MSEC = 5000;
 
@@ -38,9 +44,9 @@ class WebPreferencesService implements IWebPreferencesService {
 
 	private final Session session;
 
-	private final Map<String, String> serverKeys = new HashMap<String, String>();
+	private final Map<String, String> serverKeys = new ConcurrentHashMap<String, String>();
 
-	private final List<IWebPreferencesServiceMonitor> monitors = new ArrayList<IWebPreferencesServiceMonitor>();
+	private final CopyOnWriteArrayList<IWebPreferencesServiceMonitor> monitors = new CopyOnWriteArrayList<IWebPreferencesServiceMonitor>();
 
 	private long lastMojangAuth = 0L;
 
@@ -51,9 +57,7 @@ class WebPreferencesService implements IWebPreferencesService {
 
 	@Override
 	public void addMonitor(IWebPreferencesServiceMonitor monitor) {
-		if (!this.monitors.contains(monitor)) {
-			this.monitors.add(monitor);
-		}
+		this.monitors.addIfAbsent(monitor);
 	}
 
 	void handleKeyRequestFailed(Throwable th) {
@@ -137,8 +141,17 @@ class WebPreferencesService implements IWebPreferencesService {
 
 		String hostName = request.getDelegate().getHostName();
 		String serverId = this.serverKeys.get(hostName);
+		if (serverId != null) {
+			return serverId;
+		}
+
+		// Only one worker looks up the key, the others wait for it
+		synchronized (this.serverKeys) {
+			serverId = this.serverKeys.get(hostName);
+			if (serverId != null) {
+				return serverId;
+			}
 
-		if (serverId == null) {
 			LiteLoaderLogger.info("Looking up server ID for " + hostName);
 			WebPreferencesRequestKey keyRequest = new WebPreferencesRequestKey(this, this.session, hostName);
 			IWebPreferencesResponse response = this.processRequest(keyRequest);
@@ -150,9 +163,8 @@ class WebPreferencesService implements IWebPreferencesService {
 			this.serverKeys.put(hostName, serverId);
 
 			LiteLoaderLogger.info("Got server ID for " + hostName + " [" + serverId + "]");
+			return serverId;
 		}
-
-		return serverId;
 	}
 
 	public String httpPost(URI uri, Map<String, String> params) throws IOException {
@@ -165,6 +177,7 @@ class WebPreferencesService implements IWebPreferencesService {
 		http.setReadTimeout(WebPreferencesService.TIMEOUT_MSEC);
 		http.setUseCaches(false);
 		http.setDoOutput(true);
+		http.setRequestProperty("Connection", "keep-alive");
 
 		http.addRequestProperty("Content-type", "application/x-www-form-urlencoded");
 		http.setRequestProperty("Content-Length", "" + queryBytes.length);
@@ -238,7 +251,7 @@ class WebPreferencesService implements IWebPreferencesService {
 		return sb.toString();
 	}
 
-	private boolean registerServerConnection(Session session, String serverId) {
+	private synchronized boolean registerServerConnection(Session session, String serverId) {
 		if (session == null || serverId == null) {
 			return false;
 		}
@@ -0,0 +1,46 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader;
+
+import java.util.List;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.Packet;
+
+/**
+ * Interface for mods which want to inspect raw packets without blocking the
+ * main thread. Unlike {@link PacketHandler}, async handlers cannot cancel or
+ * modify packets: they are invoked once per packet when it arrives on the
+ * network thread, before the packet is marshalled to the main thread, and
+ * the packet then continues to be processed normally.
+ *
+ * <p>Because the packet may be processed by the main thread at the same time
+ * as it is inspected, handlers must treat the packet as read-only and must
+ * not touch game state. Handlers which are slow should return false from
+ * {@link #isNetworkThreadSafe} in which case they are invoked on a small
+ * bounded worker pool instead, packets are dropped for pooled handlers if the
+ * pool cannot keep up.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public interface AsyncPacketHandler extends LiteMod {
+	/**
+	 * Get list of packets to inspect
+	 */
+	public abstract List<Class<? extends Packet<?>>> getAsyncHandledPackets();
+
+	/**
+	 * Get whether this handler is cheap enough to run directly on the network
+	 * thread, if false the handler is invoked on the async worker pool
+	 */
+	public abstract boolean isNetworkThreadSafe();
+
+	/**
+	 * @param netHandler The vanilla nethandler which will handle this packet
+	 * @param packet     Incoming packet, must not be modified
+	 */
+	public abstract void handlePacketAsync(INetHandler netHandler, Packet<?> packet);
+}
@@ -5,6 +5,7 @@
  */
 package com.mumfrey.liteloader.api;
 
+import com.mumfrey.liteloader.core.DependencyGraph;
 import com.mumfrey.liteloader.core.ModInfo;
 import com.mumfrey.liteloader.interfaces.Loadable;
 import com.mumfrey.liteloader.interfaces.LoadableMod;
@@ -52,6 +53,12 @@ public interface ContainerRegistry {
 	 */
 	public abstract LoadableMod<?> getEnabledContainer(String identifier);
 
+	/**
+	 * Get the dependency graph of the enabled containers, the graph is built
+	 * on demand and rebuilt after containers are enabled or disabled
+	 */
+	public abstract DependencyGraph getDependencyGraph();
+
 	/**
 	 * Register a disabled container
 	 */
@@ -12,6 +12,8 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
 import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.VarInsnNode;
@@ -19,7 +21,6 @@ import org.objectweb.asm.tree.VarInsnNode;
 import com.mumfrey.liteloader.core.runtime.Obf;
 import com.mumfrey.liteloader.core.runtime.Packets;
 import com.mumfrey.liteloader.transformers.event.Event;
-import com.mumfrey.liteloader.transformers.event.EventInfo;
 
 /**
  * Special event used to hook all packets
@@ -52,13 +53,28 @@ public class PacketEvent extends Event {
 
 	/* (non-Javadoc)
 	 * @see com.mumfrey.liteloader.transformers.event.Event
-	 *      #invokeEventInfoConstructor(org.objectweb.asm.tree.InsnList,
-	 *      boolean)
+	 *      #injectGuard(org.objectweb.asm.tree.InsnList)
 	 */
 	@Override
-	protected int invokeEventInfoConstructor(InsnList insns, boolean cancellable, boolean pushReturnValue, int marshallVar) {
+	protected LabelNode injectGuard(InsnList insns) {
+		// Skip the event entirely if nothing is interested in this packet
+		LabelNode skip = new LabelNode();
+		insns.add(new IntInsnNode(Opcodes.BIPUSH, this.packetIndex));
+		insns.add(new MethodInsnNode(Opcodes.INVOKESTATIC, Obf.PacketEvents.ref, "isHooked", "(I)Z", false));
+		insns.add(new JumpInsnNode(Opcodes.IFEQ, skip));
+		return skip;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.mumfrey.liteloader.transformers.event.Event
+	 *      #createEventInfo(org.objectweb.asm.tree.InsnList, boolean,
+	 *      boolean, int)
+	 */
+	@Override
+	protected int createEventInfo(InsnList insns, boolean cancellable, boolean pushReturnValue, int marshallVar) {
 		int ctorMAXS = 0;
 
+		// Obtain a pooled event rather than instancing a new one for every packet
 		insns.add(new LdcInsnNode(this.name));
 		ctorMAXS++;
 		insns.add(this.methodIsStatic ? new InsnNode(Opcodes.ACONST_NULL) : new VarInsnNode(Opcodes.ALOAD, 0));
@@ -66,8 +82,9 @@ public class PacketEvent extends Event {
 		insns.add(new InsnNode(cancellable ? Opcodes.ICONST_1 : Opcodes.ICONST_0));
 		ctorMAXS++;
 		insns.add(new IntInsnNode(Opcodes.BIPUSH, this.packetIndex));
-		insns.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, this.eventInfoClass, Obf.constructor.name,
-			EventInfo.getConstructorDescriptor().replace(")", "I)"), false));
+		ctorMAXS++;
+		insns.add(new MethodInsnNode(Opcodes.INVOKESTATIC, this.eventInfoClass, "obtain",
+			"(Ljava/lang/String;Ljava/lang/Object;ZI)L" + this.eventInfoClass + ";", false));
 
 		return ctorMAXS;
 	}
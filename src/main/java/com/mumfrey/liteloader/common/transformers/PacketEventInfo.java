@@ -9,8 +9,25 @@ import com.mumfrey.liteloader.transformers.event.EventInfo;
 
 import net.minecraft.network.Packet;
 
+/**
+ * EventInfo for packet events. Since packet events are raised for every
+ * packet processed, instances are pooled per-thread and reused by the
+ * injected code via {@link #obtain}, the instance is returned to the pool by
+ * {@link #release} once the event has been dispatched. Consumers must
+ * therefore not retain references to packet events after the event handler
+ * returns.
+ *
+ * @param <S> packet type
+ */
 public class PacketEventInfo<S extends Packet<?>> extends EventInfo<S> {
-	private final int packetId;
+	private static final ThreadLocal<PacketEventInfo<Packet<?>>> pool = new ThreadLocal<PacketEventInfo<Packet<?>>>();
+
+	private int packetId;
+
+	/**
+	 * True while this pooled instance is being dispatched
+	 */
+	private boolean inUse;
 
 	@SuppressWarnings("unchecked")
 	public PacketEventInfo(String name, Object source, boolean cancellable, int packetId) {
@@ -22,4 +39,35 @@ public class PacketEventInfo<S extends Packet<?>> extends EventInfo<S> {
 	public int getPacketId() {
 		return this.packetId;
 	}
+
+	/**
+	 * Return this instance to the pool, the cancellation state remains valid
+	 * until the next event is obtained on the same thread but the packet is
+	 * released so that the pooled instance does not keep it reachable
+	 */
+	public void release() {
+		this.clearSource();
+		this.inUse = false;
+	}
+
+	/**
+	 * Obtain a packet event for the current thread, called by the injected
+	 * packet hooks. If the pooled event is already in use (a packet processed
+	 * from within a packet handler) then a new instance is returned instead.
+	 */
+	public static PacketEventInfo<Packet<?>> obtain(String name, Object source, boolean cancellable, int packetId) {
+		PacketEventInfo<Packet<?>> event = PacketEventInfo.pool.get();
+		if (event == null) {
+			event = new PacketEventInfo<Packet<?>>(name, source, cancellable, packetId);
+			PacketEventInfo.pool.set(event);
+		} else if (event.inUse) {
+			return new PacketEventInfo<Packet<?>>(name, source, cancellable, packetId);
+		} else {
+			event.reset(name, (Packet<?>) source, cancellable);
+			event.packetId = packetId;
+		}
+
+		event.inUse = true;
+		return event;
+	}
 }
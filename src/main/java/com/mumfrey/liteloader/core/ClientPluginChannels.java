@@ -81,7 +81,12 @@ public abstract class ClientPluginChannels extends PluginChannels<PluginChannelL
 	protected void onPluginChannelMessage(String channel, PacketBuffer data) {
 		if (PluginChannels.CHANNEL_REGISTER.equals(channel)) {
 			this.onRegisterPacketReceived(data);
-		} else if (this.pluginChannels.containsKey(channel)) {
+		} else {
+			int channelId = this.getChannelId(channel);
+			if (channelId < 0) {
+				return;
+			}
+
 			try {
 				PermissionsManagerClient permissionsManager = LiteLoader.getClientPermissionsManager();
 				if (permissionsManager != null) {
@@ -90,7 +95,7 @@ public abstract class ClientPluginChannels extends PluginChannels<PluginChannelL
 			} catch (Exception ex) {
 			}
 
-			this.onModPacketReceived(channel, data);
+			this.onModPacketReceived(channelId, channel, data);
 		}
 	}
 
@@ -99,22 +104,23 @@ public abstract class ClientPluginChannels extends PluginChannels<PluginChannelL
 	 * @param data
 	 */
 	protected void onModPacketReceived(String channel, PacketBuffer data) {
-		for (PluginChannelListener pluginChannelListener : this.pluginChannels.get(channel)) {
+		int channelId = this.getChannelId(channel);
+		if (channelId > -1) {
+			this.onModPacketReceived(channelId, channel, data);
+		}
+	}
+
+	/**
+	 * @param channelId
+	 * @param channel
+	 * @param data
+	 */
+	protected void onModPacketReceived(int channelId, String channel, PacketBuffer data) {
+		for (int index = 0, count = this.getListenerCount(channelId); index < count; index++) {
 			try {
-				pluginChannelListener.onCustomPayload(channel, data);
+				this.getListener(channelId, index).onCustomPayload(channel, data);
 			} catch (Exception ex) {
-				int failCount = 1;
-				if (this.faultingPluginChannelListeners.containsKey(pluginChannelListener)) {
-					failCount = this.faultingPluginChannelListeners.get(pluginChannelListener).intValue() + 1;
-				}
-
-				if (failCount >= PluginChannels.WARN_FAULT_THRESHOLD) {
-					LiteLoaderLogger.warning("Plugin channel listener %s exceeded fault threshold on channel %s with %s",
-						pluginChannelListener.getName(), channel, ex.getClass().getSimpleName());
-					this.faultingPluginChannelListeners.remove(pluginChannelListener);
-				} else {
-					this.faultingPluginChannelListeners.put(pluginChannelListener, Integer.valueOf(failCount));
-				}
+				this.onListenerFault(channelId, index, channel, ex);
 			}
 		}
 	}
@@ -9,6 +9,7 @@ import com.mumfrey.liteloader.api.ContainerRegistry;
 import com.mumfrey.liteloader.interfaces.Loadable;
 import com.mumfrey.liteloader.interfaces.LoadableMod;
 import com.mumfrey.liteloader.interfaces.TweakContainer;
+import com.mumfrey.liteloader.launch.LoaderEnvironment;
 
 import java.io.File;
 import java.util.*;
@@ -44,6 +45,18 @@ class Containers implements ContainerRegistry {
 	 */
 	private final List<ModInfo<Loadable<?>>> injectedTweaks = new ArrayList<ModInfo<Loadable<?>>>();
 
+	private final LoaderEnvironment environment;
+
+	/**
+	 * Dependency graph of the enabled containers, null when the enabled
+	 * containers have changed since the graph was built
+	 */
+	private DependencyGraph dependencyGraph;
+
+	Containers(LoaderEnvironment environment) {
+		this.environment = environment;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.mumfrey.liteloader.api.ContainerRegistry#getDisabledContainers()
 	 */
@@ -103,6 +116,19 @@ class Containers implements ContainerRegistry {
 		return container != null ? container : LoadableMod.NONE;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.mumfrey.liteloader.api.ContainerRegistry#getDependencyGraph()
+	 */
+	@Override
+	public DependencyGraph getDependencyGraph() {
+		if (this.dependencyGraph == null) {
+			this.dependencyGraph = new DependencyGraph(this.enabledContainers.values(), this.environment.getEnabledModsList(),
+				this.environment.getProfile());
+		}
+
+		return this.dependencyGraph;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.mumfrey.liteloader.api.ContainerRegistry
 	 *      #registerBadContainer(com.mumfrey.liteloader.interfaces.Loadable,
@@ -121,7 +147,9 @@ class Containers implements ContainerRegistry {
 	@Override
 	public void registerEnabledContainer(LoadableMod<?> container) {
 		this.disabledContainers.remove(container.getIdentifier());
-		this.enabledContainers.put(container.getIdentifier(), container);
+		if (this.enabledContainers.put(container.getIdentifier(), container) != container) {
+			this.dependencyGraph = null;
+		}
 	}
 
 	/* (non-Javadoc)
@@ -132,7 +160,9 @@ class Containers implements ContainerRegistry {
 	 */
 	@Override
 	public void registerDisabledContainer(LoadableMod<?> container, DisabledReason reason) {
-		this.enabledContainers.remove(container.getIdentifier());
+		if (this.enabledContainers.remove(container.getIdentifier()) != null) {
+			this.dependencyGraph = null;
+		}
 		this.disabledContainers.put(container.getIdentifier(), new NonMod(container, false));
 	}
 
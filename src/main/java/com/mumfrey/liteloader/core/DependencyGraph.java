@@ -0,0 +1,327 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.mumfrey.liteloader.interfaces.LoadableMod;
+
+/**
+ * Dependency graph of the enabled mod containers. The graph is resolved once
+ * when it is built: strongly connected components are found using Tarjan's
+ * algorithm and the missing dependencies and depth of each component are
+ * computed as the components are completed, since Tarjan's algorithm
+ * completes every component after all of the components it depends on this
+ * takes a single pass over the graph. Mods which depend on each other
+ * (directly or indirectly) form a cycle and are resolved together.
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class DependencyGraph {
+	private static final Set<String> NONE = Collections.<String>emptySet();
+
+	/**
+	 * Containers in the graph
+	 */
+	private final List<LoadableMod<?>> nodes = new ArrayList<LoadableMod<?>>();
+
+	/**
+	 * Node index for each container identifier
+	 */
+	private final Map<String, Integer> indices = new HashMap<String, Integer>();
+
+	/**
+	 * Available dependencies of each node
+	 */
+	private final int[][] edges;
+
+	/**
+	 * Dependencies of each node which are not available
+	 */
+	private final List<Set<String>> unavailable;
+
+	/**
+	 * Component of each node
+	 */
+	private final int[] components;
+
+	/**
+	 * Missing dependencies of each component, including missing dependencies
+	 * of components it depends on
+	 */
+	private final List<Set<String>> componentMissing = new ArrayList<Set<String>>();
+
+	/**
+	 * Length of the longest dependency chain below each component
+	 */
+	private final int[] componentDepth;
+
+	/**
+	 * Groups of containers which depend on each other
+	 */
+	private final List<List<LoadableMod<?>>> cycles = new ArrayList<List<LoadableMod<?>>>();
+
+	private final EnabledModsList enabledModsList;
+
+	private final String profile;
+
+	/**
+	 * @param containers enabled containers
+	 * @param enabledModsList mods list, dependencies which are disabled in the
+	 *      list are considered missing
+	 * @param profile active profile
+	 */
+	public DependencyGraph(Collection<? extends LoadableMod<?>> containers, EnabledModsList enabledModsList, String profile) {
+		this.enabledModsList = enabledModsList;
+		this.profile = profile;
+
+		for (LoadableMod<?> container : containers) {
+			String identifier = container.getIdentifier();
+			if (identifier != null && !this.indices.containsKey(identifier)) {
+				this.indices.put(identifier, this.nodes.size());
+				this.nodes.add(container);
+			}
+		}
+
+		int count = this.nodes.size();
+		this.edges = new int[count][];
+		this.unavailable = new ArrayList<Set<String>>(count);
+		this.components = new int[count];
+		this.componentDepth = new int[count];
+
+		for (int node = 0; node < count; node++) {
+			Set<String> dependencies = this.nodes.get(node).getDependencies();
+			int[] edges = new int[dependencies.size()];
+			int edgeCount = 0;
+			Set<String> unavailable = DependencyGraph.NONE;
+
+			for (String dependency : dependencies) {
+				int index = this.getAvailableNode(dependency);
+				if (index > -1) {
+					edges[edgeCount++] = index;
+				} else {
+					if (unavailable == DependencyGraph.NONE) {
+						unavailable = new LinkedHashSet<String>();
+					}
+					unavailable.add(dependency);
+				}
+			}
+
+			this.edges[node] = edgeCount < edges.length ? Arrays.copyOf(edges, edgeCount) : edges;
+			this.unavailable.add(unavailable);
+		}
+
+		this.resolve();
+	}
+
+	/**
+	 * Iterative Tarjan, deep dependency chains must not overflow the stack
+	 */
+	private void resolve() {
+		int count = this.nodes.size();
+		int[] index = new int[count];
+		int[] lowLink = new int[count];
+		int[] edgePos = new int[count];
+		boolean[] onStack = new boolean[count];
+		int[] stack = new int[count];
+		int[] callStack = new int[count];
+		int stackPos = 0, nextIndex = 0;
+
+		Arrays.fill(index, -1);
+
+		for (int root = 0; root < count; root++) {
+			if (index[root] > -1) {
+				continue;
+			}
+
+			int callPos = 0;
+			callStack[callPos++] = root;
+			index[root] = lowLink[root] = nextIndex++;
+			stack[stackPos++] = root;
+			onStack[root] = true;
+
+			while (callPos > 0) {
+				int node = callStack[callPos - 1];
+				if (edgePos[node] < this.edges[node].length) {
+					int next = this.edges[node][edgePos[node]++];
+					if (index[next] < 0) {
+						index[next] = lowLink[next] = nextIndex++;
+						stack[stackPos++] = next;
+						onStack[next] = true;
+						callStack[callPos++] = next;
+					} else if (onStack[next]) {
+						lowLink[node] = Math.min(lowLink[node], index[next]);
+					}
+					continue;
+				}
+
+				callPos--;
+				if (callPos > 0) {
+					int parent = callStack[callPos - 1];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+				}
+
+				if (lowLink[node] == index[node]) {
+					int component = this.componentMissing.size();
+					List<Integer> members = new ArrayList<Integer>();
+					int member;
+					do {
+						member = stack[--stackPos];
+						onStack[member] = false;
+						this.components[member] = component;
+						members.add(member);
+					} while (member != node);
+
+					this.completeComponent(component, members);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the missing dependencies and depth of a component, all of the
+	 * components it depends on have already been completed
+	 */
+	private void completeComponent(int component, List<Integer> members) {
+		Set<String> missing = DependencyGraph.NONE;
+		int depth = 0;
+		boolean cyclic = members.size() > 1;
+
+		for (int member : members) {
+			missing = DependencyGraph.union(missing, this.unavailable.get(member));
+			for (int dependency : this.edges[member]) {
+				int dependencyComponent = this.components[dependency];
+				if (dependencyComponent == component) {
+					continue;
+				}
+
+				missing = DependencyGraph.union(missing, this.componentMissing.get(dependencyComponent));
+				depth = Math.max(depth, this.componentDepth[dependencyComponent] + 1);
+			}
+		}
+
+		this.componentMissing.add(missing);
+		this.componentDepth[component] = depth;
+
+		if (cyclic) {
+			List<LoadableMod<?>> cycle = new ArrayList<LoadableMod<?>>();
+			for (int member : members) {
+				cycle.add(this.nodes.get(member));
+			}
+			this.cycles.add(Collections.unmodifiableList(cycle));
+		}
+	}
+
+	/**
+	 * Returns one of the sets if the other is empty so that sets are shared
+	 * rather than copied wherever possible
+	 */
+	private static Set<String> union(Set<String> set, Set<String> other) {
+		if (other.isEmpty() || set == other) {
+			return set;
+		}
+
+		if (set.isEmpty()) {
+			return other;
+		}
+
+		Set<String> union = new LinkedHashSet<String>(set);
+		union.addAll(other);
+		return union;
+	}
+
+	/**
+	 * Get the number of containers in the graph
+	 */
+	public int size() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * Get the node index of the specified dependency, or -1 if the dependency
+	 * is not in the graph or is disabled in the mods list
+	 */
+	private int getAvailableNode(String identifier) {
+		Integer index = this.indices.get(identifier);
+		return index != null && this.enabledModsList.isEnabled(this.profile, identifier) ? index.intValue() : -1;
+	}
+
+	/**
+	 * Get the node index of the specified container, or -1 if the container is
+	 * not part of the graph
+	 */
+	private int getNode(LoadableMod<?> container) {
+		Integer index = container != null ? this.indices.get(container.getIdentifier()) : null;
+		return index != null && this.nodes.get(index.intValue()) == container ? index.intValue() : -1;
+	}
+
+	/**
+	 * Get all direct and indirect dependencies of the specified container
+	 * which are missing or disabled. Containers which are not part of the
+	 * graph (for example disabled containers) are resolved against the graph.
+	 *
+	 * @param container
+	 * @return missing dependencies, empty if all dependencies are available
+	 */
+	public Set<String> getMissingDependencies(LoadableMod<?> container) {
+		int node = this.getNode(container);
+		if (node > -1) {
+			return Collections.unmodifiableSet(this.componentMissing.get(this.components[node]));
+		}
+
+		Set<String> missing = DependencyGraph.NONE;
+		for (String dependency : container.getDependencies()) {
+			if (dependency.equals(container.getIdentifier())) {
+				continue;
+			}
+
+			int index = this.getAvailableNode(dependency);
+			missing = DependencyGraph.union(missing, index > -1 ? this.componentMissing.get(this.components[index]) : Collections.singleton(dependency));
+		}
+
+		return Collections.unmodifiableSet(missing);
+	}
+
+	/**
+	 * Get the length of the longest chain of dependencies below the specified
+	 * container, containers with a lower depth must be loaded first
+	 *
+	 * @param container
+	 */
+	public int getDepth(LoadableMod<?> container) {
+		int node = this.getNode(container);
+		if (node > -1) {
+			return this.componentDepth[this.components[node]];
+		}
+
+		int depth = 0;
+		if (container != null) {
+			for (String dependency : container.getDependencies()) {
+				int index = this.getAvailableNode(dependency);
+				if (index > -1) {
+					depth = Math.max(depth, this.componentDepth[this.components[index]] + 1);
+				}
+			}
+		}
+
+		return depth;
+	}
+
+	/**
+	 * Get groups of containers which depend on each other
+	 */
+	public List<List<LoadableMod<?>>> getCycles() {
+		return Collections.unmodifiableList(this.cycles);
+	}
+}
@@ -22,6 +22,7 @@ import com.mumfrey.liteloader.launch.LoaderEnvironment;
 import com.mumfrey.liteloader.launch.LoaderEnvironment.EnvironmentType;
 import com.mumfrey.liteloader.launch.LoaderProperties;
 import com.mumfrey.liteloader.messaging.MessageBus;
+import com.mumfrey.liteloader.messaging.MessageChannel.Delivery;
 import com.mumfrey.liteloader.modconfig.ConfigManager;
 import com.mumfrey.liteloader.modconfig.Exposable;
 import com.mumfrey.liteloader.permissions.PermissionsManagerClient;
@@ -863,6 +864,11 @@ public final class LiteLoader {
 			this.configManager.onTick();
 			this.profiler.endSection();
 
+			// Deliver queued messages
+			this.profiler.startSection("messagebus");
+			MessageBus.getInstance().onTick(Delivery.CLIENT_TICK);
+			this.profiler.endSection();
+
 			if (!this.engine.isRunning()) {
 				this.onShutDown();
 				return;
@@ -881,6 +887,10 @@ public final class LiteLoader {
 
 		this.shutdownObservers.all().onShutDown();
 
+		if (PacketMetrics.DUMP_ON_SHUTDOWN) {
+			PacketMetrics.dump(Integer.MAX_VALUE);
+		}
+
 		this.configManager.syncConfig();
 	}
 
@@ -14,6 +14,7 @@ import com.mumfrey.liteloader.api.manager.APIRegistry;
 import com.mumfrey.liteloader.common.LoadingProgress;
 import com.mumfrey.liteloader.core.api.LiteLoaderCoreAPI;
 import com.mumfrey.liteloader.core.api.repository.Repository;
+import com.mumfrey.liteloader.core.event.HandlerListCache;
 import com.mumfrey.liteloader.interfaces.LoaderEnumerator;
 import com.mumfrey.liteloader.launch.*;
 import com.mumfrey.liteloader.util.ObfuscationUtilities;
@@ -195,6 +196,8 @@ class LiteLoaderBootstrap implements LoaderBootstrap, LoaderEnvironment, LoaderP
 		this.mkdir(this.commonConfigFolder);
 		this.mkdir(this.versionConfigFolder);
 
+		HandlerListCache.init(new File(this.configBaseFolder, "cache/handlers"));
+
 		this.initAPIs(env.getAPIsToLoad());
 		this.apiProvider = this.apiRegistry.getProvider();
 		this.apiAdapter = this.apiRegistry.getAdapter();
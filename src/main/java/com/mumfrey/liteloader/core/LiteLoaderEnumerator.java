@@ -76,7 +76,7 @@ public class LiteLoaderEnumerator implements LoaderEnumerator {
 
 	private final List<EnumeratorPlugin> plugins = new ArrayList<EnumeratorPlugin>();
 
-	private final ContainerRegistry containers = new Containers();
+	private final ContainerRegistry containers;
 
 	/**
 	 * Containers which have already been checked for potential mod candidates
@@ -103,6 +103,7 @@ public class LiteLoaderEnumerator implements LoaderEnumerator {
 		this.environment = environment;
 		this.properties = properties;
 		this.classLoader = classLoader;
+		this.containers = new Containers(environment);
 		this.validator = this.getValidator(environment);
 
 		this.initModules(environment);
@@ -370,6 +371,7 @@ public class LiteLoaderEnumerator implements LoaderEnumerator {
 
 			this.gotoState(EnumeratorState.REGISTER);
 			this.registerMods();
+			this.sortModsToLoad();
 
 			this.gotoState(EnumeratorState.FINALISED);
 			LiteLoaderLogger.info("Mod class discovery completed");
@@ -677,20 +679,45 @@ public class LiteLoaderEnumerator implements LoaderEnumerator {
 	 * Check dependencies of enabled containers
 	 */
 	private void checkDependencies() {
-		Collection<? extends LoadableMod<?>> enabledContainers = this.containers.getEnabledContainers();
-		Deque<LoadableMod<?>> containers = new LinkedList<LoadableMod<?>>(enabledContainers);
+		for (List<LoadableMod<?>> cycle : this.containers.getDependencyGraph().getCycles()) {
+			LiteLoaderLogger.info(Verbosity.REDUCED, "Containers %s have circular dependencies and will be resolved together", cycle);
+		}
+
+		// The dependency graph disables everything which depends on a missing
+		// container in one pass, but other plugins may reject a container which
+		// something depends upon so keep going until nothing else is disabled
+		List<LoadableMod<?>> failed = new ArrayList<LoadableMod<?>>();
+		do {
+			failed.clear();
+			for (LoadableMod<?> container : this.containers.getEnabledContainers()) {
+				if (!this.checkDependencies(container)) {
+					failed.add(container);
+				}
+			}
 
-		while (containers.size() > 0) {
-			LoadableMod<?> container = containers.pop();
-			if (!this.checkDependencies(container)) {
+			for (LoadableMod<?> container : failed) {
 				this.registerDisabledContainer(container, DisabledReason.MISSING_DEPENDENCY);
+			}
+		} while (failed.size() > 0);
+	}
 
-				// Iterate so that a container disabled by a failed dependency check will also
-				// disable any containers which depend upon it
-				containers.clear();
-				containers.addAll(enabledContainers);
+	/**
+	 * Sort the mods to load so that every mod is loaded (and therefore
+	 * initialised) after the mods its container depends on, mods which do not
+	 * depend on each other keep the order in which they were registered.
+	 */
+	private void sortModsToLoad() {
+		final DependencyGraph graph = this.containers.getDependencyGraph();
+		List<ModInfo<LoadableMod<?>>> mods = new ArrayList<ModInfo<LoadableMod<?>>>(this.modsToLoad);
+		Collections.sort(mods, new Comparator<ModInfo<LoadableMod<?>>>() {
+			@Override
+			public int compare(ModInfo<LoadableMod<?>> mod1, ModInfo<LoadableMod<?>> mod2) {
+				return Integer.compare(graph.getDepth(mod1.getContainer()), graph.getDepth(mod2.getContainer()));
 			}
-		}
+		});
+
+		this.modsToLoad.clear();
+		this.modsToLoad.addAll(mods);
 	}
 
 	@Override
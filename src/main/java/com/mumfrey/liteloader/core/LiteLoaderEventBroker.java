@@ -15,11 +15,15 @@ import com.mumfrey.liteloader.common.GameEngine;
 import com.mumfrey.liteloader.common.LoadingProgress;
 import com.mumfrey.liteloader.common.ducks.IPacketClientSettings;
 import com.mumfrey.liteloader.common.ducks.ITeleportHandler;
+import com.mumfrey.liteloader.core.event.ConcurrentHandlerList;
 import com.mumfrey.liteloader.core.event.HandlerList;
 import com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp;
+import com.mumfrey.liteloader.core.event.TimingHandlerList;
 import com.mumfrey.liteloader.interfaces.FastIterable;
 import com.mumfrey.liteloader.interfaces.FastIterableDeque;
 import com.mumfrey.liteloader.launch.LoaderProperties;
+import com.mumfrey.liteloader.messaging.MessageBus;
+import com.mumfrey.liteloader.messaging.MessageChannel.Delivery;
 import com.mumfrey.liteloader.util.Position;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
 import net.minecraft.command.ICommandManager;
@@ -119,7 +123,8 @@ public abstract class LiteLoaderEventBroker<TClient, TServer extends MinecraftSe
 	protected LiteLoaderMods mods;
 
 	private Map<UUID, PlayerEventState> playerStates = new HashMap<UUID, PlayerEventState>();
-	private FastIterableDeque<IEventState> playerStateList = new HandlerList<IEventState>(IEventState.class);
+	private FastIterableDeque<IEventState> playerStateList
+		= new HandlerList<IEventState>(IEventState.class, ReturnLogicOp.AND_BREAK_ON_FALSE, true, true);
 
 	/**
 	 * List of mods which provide server commands
@@ -131,25 +136,25 @@ public abstract class LiteLoaderEventBroker<TClient, TServer extends MinecraftSe
 	 * List of mods which monitor server player events
 	 */
 	private FastIterable<ServerPlayerListener> serverPlayerListeners
-		= new HandlerList<ServerPlayerListener>(ServerPlayerListener.class);
+		= new ConcurrentHandlerList<ServerPlayerListener>(ServerPlayerListener.class);
 
 	/**
 	 * List of mods which handle player interaction events
 	 */
 	private FastIterable<PlayerInteractionListener> playerInteractionListeners
-		= new HandlerList<PlayerInteractionListener>(PlayerInteractionListener.class, ReturnLogicOp.AND);
+		= new ConcurrentHandlerList<PlayerInteractionListener>(PlayerInteractionListener.class, ReturnLogicOp.AND);
 
 	/**
 	 * List of mods which handle player movement events
 	 */
 	private FastIterable<PlayerMoveListener> playerMoveListeners
-		= new HandlerList<PlayerMoveListener>(PlayerMoveListener.class, ReturnLogicOp.AND_BREAK_ON_FALSE);
+		= new ConcurrentHandlerList<PlayerMoveListener>(PlayerMoveListener.class, ReturnLogicOp.AND_BREAK_ON_FALSE);
 
 	/**
 	 * List of mods which monitor server ticks
 	 */
 	private FastIterable<ServerTickable> serverTickListeners
-		= new HandlerList<ServerTickable>(ServerTickable.class);
+		= new TimingHandlerList.Concurrent<ServerTickable>(ServerTickable.class);
 
 	/**
 	 * List of mods which want to be notified when the game is shutting down
@@ -339,6 +344,7 @@ public abstract class LiteLoaderEventBroker<TClient, TServer extends MinecraftSe
 	public void onPlayerLogout(PlayerList scm, EntityPlayerMP player) {
 		this.serverPlayerListeners.all().onPlayerLogout(player);
 		this.removePlayer(player);
+		LiteLoader.getServerPluginChannels().onPlayerLogout(player);
 	}
 
 	/**
@@ -366,6 +372,7 @@ public abstract class LiteLoaderEventBroker<TClient, TServer extends MinecraftSe
 	public void onServerTick(MinecraftServer server) {
 		this.playerStateList.all().onTick(server);
 		this.serverTickListeners.all().onTick(server);
+		MessageBus.getInstance().onTick(Delivery.SERVER_TICK);
 	}
 
 	public boolean onPlaceBlock(NetHandlerPlayServer netHandler, EntityPlayerMP player, EnumHand hand, BlockPos pos, EnumFacing facing) {
@@ -70,7 +70,8 @@ public class LiteLoaderMods {
 	protected final List<Mod> allMods = new ArrayList<Mod>();
 
 	/**
-	 * Global list of mods which are still waiting for initialisiation
+	 * Global list of mods which are still waiting for initialisiation, mods
+	 * are queued in load order so dependencies are initialised first
 	 */
 	protected final Deque<Mod> initMods = new LinkedList<Mod>();
 
@@ -371,7 +372,8 @@ public class LiteLoaderMods {
 	}
 
 	/**
-	 * Create mod instances from the enumerated classes
+	 * Create mod instances from the enumerated classes, the enumerator supplies
+	 * the mods in dependency order
 	 */
 	void loadMods() {
 		LoadingProgress.incTotalLiteLoaderProgress(this.enumerator.getModsToLoad().size());
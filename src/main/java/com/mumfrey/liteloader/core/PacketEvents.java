@@ -5,13 +5,16 @@
  */
 package com.mumfrey.liteloader.core;
 
+import com.mumfrey.liteloader.AsyncPacketHandler;
 import com.mumfrey.liteloader.PacketHandler;
 import com.mumfrey.liteloader.ServerChatFilter;
 import com.mumfrey.liteloader.api.InterfaceProvider;
 import com.mumfrey.liteloader.api.Listener;
 import com.mumfrey.liteloader.common.transformers.PacketEventInfo;
-import com.mumfrey.liteloader.core.event.HandlerList;
+import com.mumfrey.liteloader.core.event.ConcurrentHandlerList;
 import com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp;
+import com.mumfrey.liteloader.core.event.ListenerTimings;
+import com.mumfrey.liteloader.core.event.TimingHandlerList;
 import com.mumfrey.liteloader.core.runtime.Packets;
 import com.mumfrey.liteloader.interfaces.FastIterable;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
@@ -29,6 +32,13 @@ import net.minecraft.network.play.server.SPacketJoinGame;
 import net.minecraft.util.IThreadListener;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Packet event handling
@@ -38,9 +48,19 @@ import java.util.List;
 public abstract class PacketEvents implements InterfaceProvider {
 	protected static PacketEvents instance;
 
-	class PacketHandlerList extends HandlerList<PacketHandler> {
-		private static final long serialVersionUID = 1L;
+	/**
+	 * Packets which have at least one handler, checked by the injected packet
+	 * hooks so that no event is raised for packets nobody is interested in
+	 */
+	private static final boolean[] hookedPackets = new boolean[Packets.count()];
 
+	/**
+	 * Packet handlers are dispatched on whichever thread processes the packet
+	 * so we use concurrent lists in order that mods may safely register
+	 * handlers from any thread. Handlers are timed individually so that slow
+	 * handlers can be identified via {@link ListenerTimings}.
+	 */
+	class PacketHandlerList extends TimingHandlerList.Concurrent<PacketHandler> {
 		/**
 		 * ctor
 		 */
@@ -49,6 +69,54 @@ public abstract class PacketEvents implements InterfaceProvider {
 		}
 	}
 
+	/**
+	 * Async packet handlers are invoked on the network thread or the async
+	 * worker pool. Handlers are invoked individually rather than via a baked
+	 * list so that a handler which throws does not prevent the handlers after
+	 * it from seeing the packet.
+	 */
+	class AsyncPacketHandlerList extends ConcurrentHandlerList<AsyncPacketHandler> {
+		/**
+		 * ctor
+		 */
+		AsyncPacketHandlerList() {
+			super(AsyncPacketHandler.class);
+		}
+	}
+
+	/**
+	 * Invokes pooled async handlers for a single packet on the worker pool
+	 */
+	static class AsyncPacketTask implements Runnable {
+		private final AsyncPacketHandlerList handlers;
+
+		private final INetHandler netHandler;
+
+		private final Packet<?> packet;
+
+		AsyncPacketTask(AsyncPacketHandlerList handlers, INetHandler netHandler, Packet<?> packet) {
+			this.handlers = handlers;
+			this.netHandler = netHandler;
+			this.packet = packet;
+		}
+
+		@Override
+		public void run() {
+			PacketEvents.invokeAsyncHandlers(this.handlers, this.netHandler, this.packet);
+		}
+	}
+
+	/**
+	 * Number of worker threads for pooled async handlers
+	 */
+	private static final int ASYNC_POOL_THREADS = Math.max(1, Integer.getInteger("liteloader.packets.async.threads", 2));
+
+	/**
+	 * Maximum number of packets queued for pooled async handlers, further
+	 * packets are dropped
+	 */
+	private static final int ASYNC_POOL_QUEUE = Math.max(1, Integer.getInteger("liteloader.packets.async.queue", 4096));
+
 	/**
 	 * Reference to the loader instance
 	 */
@@ -56,7 +124,25 @@ public abstract class PacketEvents implements InterfaceProvider {
 
 	private PacketHandlerList[] packetHandlers = new PacketHandlerList[Packets.count()];
 
-	private FastIterable<ServerChatFilter> serverChatFilters = new HandlerList<ServerChatFilter>(ServerChatFilter.class,
+	/**
+	 * Async handlers which run directly on the network thread
+	 */
+	private AsyncPacketHandlerList[] networkAsyncHandlers = new AsyncPacketHandlerList[Packets.count()];
+
+	/**
+	 * Async handlers which run on the worker pool
+	 */
+	private AsyncPacketHandlerList[] pooledAsyncHandlers = new AsyncPacketHandlerList[Packets.count()];
+
+	/**
+	 * Worker pool for async handlers, created when the first pooled handler
+	 * is registered
+	 */
+	private volatile ThreadPoolExecutor asyncPool;
+
+	private final LongAdder droppedAsyncPackets = new LongAdder();
+
+	private FastIterable<ServerChatFilter> serverChatFilters = new ConcurrentHandlerList<ServerChatFilter>(ServerChatFilter.class,
 		ReturnLogicOp.AND_BREAK_ON_FALSE);
 
 	private final int loginSuccessPacketId = Packets.SPacketLoginSuccess.getIndex();
@@ -73,6 +159,35 @@ public abstract class PacketEvents implements InterfaceProvider {
 	public PacketEvents() {
 		PacketEvents.instance = this;
 		this.loader = LiteLoader.getInstance();
+
+		this.hookPacket(this.loginSuccessPacketId);
+		this.hookPacket(this.serverChatPacketId);
+		this.hookPacket(this.clientChatPacketId);
+		this.hookPacket(this.joinGamePacketId);
+		this.hookPacket(this.serverPayloadPacketId);
+		this.hookPacket(this.clientPayloadPacketId);
+		this.hookPacket(this.clientSettingsPacketId);
+	}
+
+	/**
+	 * Mark the specified packet as hooked so that events are raised for it,
+	 * subclasses which handle additional packets in handlePacketEvent must
+	 * call this for each packet they handle.
+	 *
+	 * @param packetId
+	 */
+	protected final void hookPacket(int packetId) {
+		PacketEvents.hookedPackets[packetId] = true;
+	}
+
+	/**
+	 * Called by the injected packet hooks before raising an event
+	 *
+	 * @param packetId
+	 * @return true if an event should be raised for the packet
+	 */
+	public static boolean isHooked(int packetId) {
+		return PacketEvents.hookedPackets[packetId];
 	}
 
 	@Override
@@ -84,6 +199,7 @@ public abstract class PacketEvents implements InterfaceProvider {
 	public void registerInterfaces(InterfaceRegistrationDelegate delegate) {
 		delegate.registerInterface(PacketHandler.class);
 		delegate.registerInterface(ServerChatFilter.class);
+		delegate.registerInterface(AsyncPacketHandler.class);
 	}
 
 	@Override
@@ -102,10 +218,11 @@ public abstract class PacketEvents implements InterfaceProvider {
 	 *
 	 * @param handler
 	 */
-	public void registerPacketHandler(PacketHandler handler) {
+	public synchronized void registerPacketHandler(PacketHandler handler) {
 		List<Class<? extends Packet<?>>> handledPackets = handler.getHandledPackets();
 		if (handledPackets != null) {
 			for (Class<? extends Packet<?>> packetClass : handledPackets) {
+				// Exact match only, subclasses of known packets are not supported
 				String packetClassName = packetClass.getName();
 				int packetId = Packets.indexOf(packetClassName);
 				if (packetId == -1 || packetId >= this.packetHandlers.length) {
@@ -119,10 +236,72 @@ public abstract class PacketEvents implements InterfaceProvider {
 				}
 
 				this.packetHandlers[packetId].add(handler);
+				this.hookPacket(packetId);
 			}
 		}
 	}
 
+	/**
+	 * Register a new async packet handler
+	 *
+	 * @param handler
+	 */
+	public synchronized void registerAsyncPacketHandler(AsyncPacketHandler handler) {
+		List<Class<? extends Packet<?>>> handledPackets = handler.getAsyncHandledPackets();
+		if (handledPackets != null) {
+			AsyncPacketHandlerList[] handlers = handler.isNetworkThreadSafe() ? this.networkAsyncHandlers : this.pooledAsyncHandlers;
+			for (Class<? extends Packet<?>> packetClass : handledPackets) {
+				// Exact match only, subclasses of known packets are not supported
+				String packetClassName = packetClass.getName();
+				int packetId = Packets.indexOf(packetClassName);
+				if (packetId == -1 || packetId >= handlers.length) {
+					LiteLoaderLogger.warning("AsyncPacketHandler %s attempted to register a handler for unupported packet class %s",
+						handler.getName(), packetClassName);
+					continue;
+				}
+
+				if (handlers[packetId] == null) {
+					handlers[packetId] = new AsyncPacketHandlerList();
+				}
+
+				handlers[packetId].add(handler);
+				this.hookPacket(packetId);
+			}
+
+			if (handlers == this.pooledAsyncHandlers && this.asyncPool == null) {
+				this.asyncPool = this.createAsyncPool();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of packets which were not passed to pooled async
+	 * handlers because the worker pool queue was full
+	 */
+	public long getDroppedAsyncPackets() {
+		return this.droppedAsyncPackets.sum();
+	}
+
+	private ThreadPoolExecutor createAsyncPool() {
+		final AtomicInteger threadNumber = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(PacketEvents.ASYNC_POOL_THREADS, PacketEvents.ASYNC_POOL_THREADS, 60L, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<Runnable>(PacketEvents.ASYNC_POOL_QUEUE), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "LiteLoader Async Packet Handler #" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			}, new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+					PacketEvents.this.droppedAsyncPackets.increment();
+				}
+			});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
 	/**
 	 * Event callback
 	 *
@@ -130,17 +309,39 @@ public abstract class PacketEvents implements InterfaceProvider {
 	 * @param netHandler
 	 */
 	public static void handlePacket(PacketEventInfo<Packet<?>> e, INetHandler netHandler) {
-		PacketEvents.instance.handlePacket(e, netHandler, e.getPacketId());
+		try {
+			PacketEvents.instance.handlePacket(e, netHandler, e.getPacketId());
+		} finally {
+			e.release();
+		}
 	}
 
 	private void handlePacket(PacketEventInfo<Packet<?>> e, INetHandler netHandler, int packetId) {
 		Packets packetInfo = Packets.packets[e.getPacketId()];
 		IThreadListener threadListener = this.getPacketContextListener(packetInfo.getContext());
 		if (threadListener != null && !threadListener.isCallingFromMinecraftThread()) {
+			if (PacketMetrics.isEnabled()) {
+				PacketMetrics.recordMarshalled(packetId);
+			}
+			this.dispatchAsyncHandlers(netHandler, e.getSource(), packetId);
 			this.handleAsyncPacketEvent(e, netHandler, packetId);
 			return;
 		}
 
+		if (!PacketMetrics.isEnabled()) {
+			this.dispatchPacketEvent(e, netHandler, packetId);
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			this.dispatchPacketEvent(e, netHandler, packetId);
+		} finally {
+			PacketMetrics.recordDispatch(packetId, System.nanoTime() - start, e.isCancelled());
+		}
+	}
+
+	private void dispatchPacketEvent(PacketEventInfo<Packet<?>> e, INetHandler netHandler, int packetId) {
 		if (this.handlePacketEvent(e, netHandler, packetId) || this.packetHandlers[packetId] == null || e.isCancelled()) {
 			return;
 		}
@@ -152,6 +353,38 @@ public abstract class PacketEvents implements InterfaceProvider {
 		e.cancel();
 	}
 
+	/**
+	 * Pass a packet which has just arrived on the network thread to the async
+	 * handlers, this happens exactly once per packet since the event raised
+	 * when the packet is processed on the main thread does not reach here.
+	 *
+	 * @param netHandler
+	 * @param packet
+	 * @param packetId
+	 */
+	private void dispatchAsyncHandlers(INetHandler netHandler, Packet<?> packet, int packetId) {
+		AsyncPacketHandlerList networkHandlers = this.networkAsyncHandlers[packetId];
+		if (networkHandlers != null) {
+			PacketEvents.invokeAsyncHandlers(networkHandlers, netHandler, packet);
+		}
+
+		AsyncPacketHandlerList pooledHandlers = this.pooledAsyncHandlers[packetId];
+		ThreadPoolExecutor pool = this.asyncPool;
+		if (pooledHandlers != null && pool != null) {
+			pool.execute(new AsyncPacketTask(pooledHandlers, netHandler, packet));
+		}
+	}
+
+	static void invokeAsyncHandlers(AsyncPacketHandlerList handlers, INetHandler netHandler, Packet<?> packet) {
+		for (AsyncPacketHandler handler : handlers) {
+			try {
+				handler.handlePacketAsync(netHandler, packet);
+			} catch (Exception ex) {
+				LiteLoaderLogger.warning(ex, "Error in async packet handler %s for packet %s", handler.getName(), packet.getClass().getName());
+			}
+		}
+	}
+
 	/**
 	 * @param context
 	 */
@@ -0,0 +1,309 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core;
+
+import com.mumfrey.liteloader.core.runtime.Packets;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-packet traffic counters for packets which raise packet events. For each
+ * packet type we record the number of events dispatched on the processing
+ * thread, the number of events which were first seen on the network thread
+ * and marshalled to the main thread, the number of events which were
+ * cancelled and the total and maximum time spent in LiteLoader and mod
+ * handlers. Totals per {@link Packets.Context} are derived on demand.
+ *
+ * <p>Counters are striped {@link LongAdder}s indexed by packet id so
+ * recording never allocates or contends. Only hooked packets raise events,
+ * so packets nobody handles are never counted. Recording can be disabled by
+ * setting the system property <tt>liteloader.packets.metrics</tt> to
+ * <tt>false</tt>, setting <tt>liteloader.packets.metrics.dump</tt> to
+ * <tt>true</tt> writes a summary to the log on shutdown.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class PacketMetrics {
+	private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("liteloader.packets.metrics", "true"));
+
+	static final boolean DUMP_ON_SHUTDOWN = Boolean.getBoolean("liteloader.packets.metrics.dump");
+
+	private static final LongAdder[] events = PacketMetrics.createCounters();
+
+	private static final LongAdder[] marshalled = PacketMetrics.createCounters();
+
+	private static final LongAdder[] cancelled = PacketMetrics.createCounters();
+
+	private static final LongAdder[] handlerNanos = PacketMetrics.createCounters();
+
+	private static final AtomicLongArray maxNanos = new AtomicLongArray(Packets.count());
+
+	/**
+	 * Snapshot of the counters for a single packet type or context
+	 */
+	public static final class Stats {
+		private final String name;
+
+		private final Packets.Context context;
+
+		long events, marshalled, cancelled, handlerNanos, maxNanos;
+
+		Stats(String name, Packets.Context context) {
+			this.name = name;
+			this.context = context;
+		}
+
+		void add(Stats other) {
+			this.events += other.events;
+			this.marshalled += other.marshalled;
+			this.cancelled += other.cancelled;
+			this.handlerNanos += other.handlerNanos;
+			this.maxNanos = Math.max(this.maxNanos, other.maxNanos);
+		}
+
+		/**
+		 * Get the packet short name, or the context name for context totals
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Get the context in which the packet is processed
+		 */
+		public Packets.Context getContext() {
+			return this.context;
+		}
+
+		/**
+		 * Get the number of events dispatched to handlers
+		 */
+		public long getEvents() {
+			return this.events;
+		}
+
+		/**
+		 * Get the number of events first raised on the network thread
+		 */
+		public long getMarshalled() {
+			return this.marshalled;
+		}
+
+		/**
+		 * Get the number of dispatched events which were cancelled
+		 */
+		public long getCancelled() {
+			return this.cancelled;
+		}
+
+		/**
+		 * Get the fraction of dispatched events which were cancelled
+		 */
+		public double getCancellationRatio() {
+			return this.events > 0 ? (double) this.cancelled / this.events : 0.0;
+		}
+
+		/**
+		 * Get the total time spent in handlers in nanoseconds
+		 */
+		public long getHandlerNanos() {
+			return this.handlerNanos;
+		}
+
+		/**
+		 * Get the mean time spent in handlers per event in nanoseconds
+		 */
+		public long getMeanNanos() {
+			return this.events > 0 ? this.handlerNanos / this.events : 0;
+		}
+
+		/**
+		 * Get the longest time spent handling a single event in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return this.maxNanos;
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	private PacketMetrics() {
+	}
+
+	/**
+	 * Get whether metrics are being recorded
+	 */
+	public static boolean isEnabled() {
+		return PacketMetrics.ENABLED;
+	}
+
+	/**
+	 * Record an event which was raised on the network thread and will be
+	 * raised again once the packet reaches the processing thread
+	 */
+	static void recordMarshalled(int packetId) {
+		PacketMetrics.marshalled[packetId].increment();
+	}
+
+	/**
+	 * Record an event which was dispatched to handlers
+	 */
+	static void recordDispatch(int packetId, long nanos, boolean wasCancelled) {
+		PacketMetrics.events[packetId].increment();
+		PacketMetrics.handlerNanos[packetId].add(nanos);
+		if (wasCancelled) {
+			PacketMetrics.cancelled[packetId].increment();
+		}
+
+		long max = PacketMetrics.maxNanos.get(packetId);
+		while (nanos > max && !PacketMetrics.maxNanos.compareAndSet(packetId, max, nanos)) {
+			max = PacketMetrics.maxNanos.get(packetId);
+		}
+	}
+
+	/**
+	 * Get a snapshot of the counters for the specified packet
+	 */
+	public static Stats getStats(Packets packet) {
+		int packetId = packet.getIndex();
+		Stats stats = new Stats(packet.getShortName(), packet.getContext());
+		stats.events = PacketMetrics.events[packetId].sum();
+		stats.marshalled = PacketMetrics.marshalled[packetId].sum();
+		stats.cancelled = PacketMetrics.cancelled[packetId].sum();
+		stats.handlerNanos = PacketMetrics.handlerNanos[packetId].sum();
+		stats.maxNanos = PacketMetrics.maxNanos.get(packetId);
+		return stats;
+	}
+
+	/**
+	 * Get snapshots for all packets which have been seen at least once,
+	 * sorted by total handler time descending
+	 */
+	public static List<Stats> getStats() {
+		List<Stats> stats = new ArrayList<Stats>();
+		for (Packets packet : Packets.packets) {
+			Stats packetStats = PacketMetrics.getStats(packet);
+			if (packetStats.events > 0 || packetStats.marshalled > 0) {
+				stats.add(packetStats);
+			}
+		}
+
+		Collections.sort(stats, new Comparator<Stats>() {
+			@Override
+			public int compare(Stats a, Stats b) {
+				return Long.compare(b.handlerNanos, a.handlerNanos);
+			}
+		});
+
+		return stats;
+	}
+
+	/**
+	 * Get the totals for all packets processed in the specified context
+	 */
+	public static Stats getStats(Packets.Context context) {
+		Stats total = new Stats(context.name(), context);
+		for (Packets packet : Packets.packets) {
+			if (packet.getContext() == context) {
+				total.add(PacketMetrics.getStats(packet));
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Reset all counters
+	 */
+	public static void reset() {
+		for (int packetId = 0; packetId < Packets.count(); packetId++) {
+			PacketMetrics.events[packetId].reset();
+			PacketMetrics.marshalled[packetId].reset();
+			PacketMetrics.cancelled[packetId].reset();
+			PacketMetrics.handlerNanos[packetId].reset();
+			PacketMetrics.maxNanos.set(packetId, 0);
+		}
+	}
+
+	/**
+	 * Write a summary of the packet metrics to the log
+	 *
+	 * @param limit maximum number of packet entries to write
+	 */
+	public static void dump(int limit) {
+		List<Stats> stats = PacketMetrics.getStats();
+		LiteLoaderLogger.info("Packet event metrics, top %d of %d packet types:", Math.min(limit, stats.size()), stats.size());
+
+		for (Packets.Context context : Packets.Context.values()) {
+			PacketMetrics.dump(PacketMetrics.getStats(context));
+		}
+
+		int count = 0;
+		for (Stats packetStats : stats) {
+			if (count++ >= limit) {
+				break;
+			}
+
+			PacketMetrics.dump(packetStats);
+		}
+	}
+
+	private static void dump(Stats stats) {
+		LiteLoaderLogger.info("  %-40s events=%-10d marshalled=%-10d cancelled=%5.1f%% mean=%8.3fms max=%8.3fms total=%10.1fms", stats,
+			stats.events, stats.marshalled, stats.getCancellationRatio() * 100.0, stats.getMeanNanos() / 1000000.0,
+			stats.maxNanos / 1000000.0, stats.handlerNanos / 1000000.0);
+	}
+
+	/**
+	 * Export the packet metrics to a CSV file
+	 *
+	 * @param file file to write
+	 * @throws IOException if the file could not be written
+	 */
+	public static void export(File file) throws IOException {
+		PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name());
+		try {
+			writer.println("packet,context,events,marshalled,cancelled,cancellationRatio,handlerNanos,meanNanos,maxNanos");
+			for (Packets.Context context : Packets.Context.values()) {
+				PacketMetrics.export(writer, PacketMetrics.getStats(context));
+			}
+			for (Stats packetStats : PacketMetrics.getStats()) {
+				PacketMetrics.export(writer, packetStats);
+			}
+		} finally {
+			writer.close();
+		}
+
+		if (writer.checkError()) {
+			throw new IOException("Error writing packet metrics to " + file);
+		}
+	}
+
+	private static void export(PrintWriter writer, Stats stats) {
+		writer.printf("%s,%s,%d,%d,%d,%.4f,%d,%d,%d%n", stats.name, stats.context, stats.events, stats.marshalled, stats.cancelled,
+			stats.getCancellationRatio(), stats.handlerNanos, stats.getMeanNanos(), stats.maxNanos);
+	}
+
+	private static LongAdder[] createCounters() {
+		LongAdder[] counters = new LongAdder[Packets.count()];
+		for (int packetId = 0; packetId < counters.length; packetId++) {
+			counters[packetId] = new LongAdder();
+		}
+		return counters;
+	}
+}
@@ -54,9 +54,29 @@ public abstract class PluginChannels<L extends CommonPluginChannelListener> impl
 	/**
 	 * Keep track of faulting listeners so that we can periodically log a
 	 * message if a listener is throwing LOTS of exceptions.
+	 *
+	 * @deprecated fault counts are now tracked per channel and listener in
+	 *      {@link #channelFaults}, this map is no longer populated
 	 */
+	@Deprecated
 	protected final Map<L, Integer> faultingPluginChannelListeners = new HashMap<L, Integer>();
 
+	/**
+	 * Local channel names mapped to channel ids, ids index the arrays below
+	 */
+	private final Map<String, Integer> channelIds = new HashMap<String, Integer>();
+
+	/**
+	 * Listeners for each channel id, rebuilt when a channel's listeners change
+	 * so that dispatch can iterate a plain array
+	 */
+	private Object[][] channelListeners = new Object[0][];
+
+	/**
+	 * Fault counts for each listener of each channel id
+	 */
+	private int[][] channelFaults = new int[0][];
+
 	/**
 	 * Package private
 	 */
@@ -109,21 +129,97 @@ public abstract class PluginChannels<L extends CommonPluginChannelListener> impl
 		this.pluginChannels.clear();
 		this.remotePluginChannels.clear();
 		this.faultingPluginChannelListeners.clear();
+		this.channelIds.clear();
+		this.channelListeners = new Object[0][];
+		this.channelFaults = new int[0][];
+	}
+
+	/**
+	 * Get the id of the specified local channel
+	 *
+	 * @param channel
+	 * @return channel id or -1 if no listeners are registered for the channel
+	 */
+	protected final int getChannelId(String channel) {
+		Integer channelId = this.channelIds.get(channel);
+		return channelId != null ? channelId.intValue() : -1;
+	}
+
+	/**
+	 * Get the number of listeners registered for the specified channel id
+	 */
+	protected final int getListenerCount(int channelId) {
+		return this.channelListeners[channelId].length;
+	}
+
+	/**
+	 * Get a listener registered for the specified channel id
+	 */
+	@SuppressWarnings("unchecked")
+	protected final L getListener(int channelId, int index) {
+		return (L) this.channelListeners[channelId][index];
+	}
+
+	/**
+	 * Record an exception thrown by a listener, logs a warning each time the
+	 * listener reaches the fault threshold
+	 *
+	 * @param channelId
+	 * @param index listener index
+	 * @param channel
+	 * @param th exception thrown by the listener
+	 */
+	protected final void onListenerFault(int channelId, int index, String channel, Throwable th) {
+		int[] faults = this.channelFaults[channelId];
+		if (++faults[index] >= PluginChannels.WARN_FAULT_THRESHOLD) {
+			LiteLoaderLogger.warning("Plugin channel listener %s exceeded fault threshold on channel %s with %s",
+				this.getListener(channelId, index).getName(), channel, th.getClass().getSimpleName());
+			faults[index] = 0;
+		}
+	}
+
+	/**
+	 * Rebuild the listener array for the specified channel, fault counts for
+	 * the channel are reset
+	 */
+	private void indexChannel(String channel) {
+		Integer channelId = this.channelIds.get(channel);
+		if (channelId == null) {
+			channelId = Integer.valueOf(this.channelListeners.length);
+			this.channelIds.put(channel, channelId);
+			this.channelListeners = Arrays.copyOf(this.channelListeners, channelId + 1);
+			this.channelFaults = Arrays.copyOf(this.channelFaults, channelId + 1);
+		}
+
+		List<L> listeners = this.pluginChannels.get(channel);
+		this.channelListeners[channelId] = listeners.toArray();
+		this.channelFaults[channelId] = new int[listeners.size()];
 	}
 
 	/**
 	 * @param data
 	 */
 	protected void onRegisterPacketReceived(PacketBuffer data) {
+		String[] channels = PluginChannels.decodeChannelList(data);
+		if (channels != null) {
+			Collections.addAll(this.remotePluginChannels, channels);
+		}
+	}
+
+	/**
+	 * Decode the channel list from a REGISTER or UNREGISTER packet
+	 *
+	 * @param data
+	 * @return decoded channel names or null if the data could not be decoded
+	 */
+	protected static String[] decodeChannelList(PacketBuffer data) {
 		try {
 			byte[] bytes = new byte[data.readableBytes()];
 			data.readBytes(bytes);
-			String channels = new String(bytes, Charsets.UTF_8);
-			for (String channel : channels.split("\u0000")) {
-				this.remotePluginChannels.add(channel);
-			}
+			return new String(bytes, Charsets.UTF_8).split("\u0000");
 		} catch (Exception ex) {
 			LiteLoaderLogger.warning(ex, "Error decoding REGISTER packet from remote host %s", ex.getClass().getSimpleName());
+			return null;
 		}
 	}
 
@@ -170,6 +266,7 @@ public abstract class PluginChannels<L extends CommonPluginChannelListener> impl
 				}
 
 				this.pluginChannels.get(channel).add(pluginChannelListener);
+				this.indexChannel(channel);
 			}
 		}
 	}
@@ -186,8 +283,8 @@ public abstract class PluginChannels<L extends CommonPluginChannelListener> impl
 		return channel != null
 			&& channel.length() > 0
 			&& channel.length() <= PluginChannels.MAX_CHANNEL_NAME_LENGTH
-			&& !channel.toUpperCase().equals(PluginChannels.CHANNEL_REGISTER)
-			&& !channel.toUpperCase().equals(PluginChannels.CHANNEL_UNREGISTER);
+			&& !channel.equalsIgnoreCase(PluginChannels.CHANNEL_REGISTER)
+			&& !channel.equalsIgnoreCase(PluginChannels.CHANNEL_UNREGISTER);
 	}
 
 	/**
@@ -222,6 +319,16 @@ public abstract class PluginChannels<L extends CommonPluginChannelListener> impl
 			return channels.isRemoteChannelRegistered(channel);
 		}
 
+		/**
+		 * True if this policy allows outbound traffic on a channel with the
+		 * specified registration state
+		 *
+		 * @param registered true if the remote side registered the channel
+		 */
+		public boolean allows(boolean registered) {
+			return this == ChannelPolicy.DISPATCH_ALWAYS || registered;
+		}
+
 		/**
 		 * True if this policy does not throw an exception for unregistered
 		 * outbound channels
@@ -19,6 +19,13 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.network.play.client.CPacketCustomPayload;
 import net.minecraft.network.play.server.SPacketCustomPayload;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Handler for server plugin channels
  *
@@ -27,6 +34,13 @@ import net.minecraft.network.play.server.SPacketCustomPayload;
 public class ServerPluginChannels extends PluginChannels<ServerPluginChannelListener> {
 	private static ServerPluginChannels instance;
 
+	/**
+	 * Channels registered by each connected client, keyed by connection since
+	 * the player entity is replaced when the player respawns
+	 */
+	private final Map<NetHandlerPlayServer, Set<String>> playerChannels
+		= Collections.synchronizedMap(new WeakHashMap<NetHandlerPlayServer, Set<String>>());
+
 	public ServerPluginChannels() {
 		if (ServerPluginChannels.instance != null) {
 			InstantiationException inner = new InstantiationException("Only a single instance of ServerPluginChannels is allowed");
@@ -74,6 +88,7 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 
 	void onServerStartup() {
 		this.clearPluginChannels(null);
+		this.playerChannels.clear();
 
 		// Enumerate mods for plugin channels
 		for (ServerPluginChannelListener pluginChannelListener : this.pluginChannelListeners) {
@@ -85,6 +100,49 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 		this.sendRegisteredPluginChannels(player);
 	}
 
+	void onPlayerLogout(EntityPlayerMP player) {
+		if (player.connection != null) {
+			this.playerChannels.remove(player.connection);
+		}
+	}
+
+	/**
+	 * Get the set of channels registered by the specified client
+	 *
+	 * @param player
+	 */
+	public Set<String> getRemoteChannels(EntityPlayerMP player) {
+		Set<String> channels = this.getPlayerChannels(player, false);
+		return channels != null ? Collections.unmodifiableSet(channels) : Collections.<String>emptySet();
+	}
+
+	/**
+	 * Check whether a plugin channel is registered by the specified client
+	 *
+	 * @param player
+	 * @param channel
+	 * @return true if the channel is registered at the client side
+	 */
+	public boolean isRemoteChannelRegistered(EntityPlayerMP player, String channel) {
+		Set<String> channels = this.getPlayerChannels(player, false);
+		return channels != null && channels.contains(channel);
+	}
+
+	private Set<String> getPlayerChannels(EntityPlayerMP player, boolean create) {
+		if (player == null || player.connection == null) {
+			return null;
+		}
+
+		synchronized (this.playerChannels) {
+			Set<String> channels = this.playerChannels.get(player.connection);
+			if (channels == null && create) {
+				channels = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+				this.playerChannels.put(player.connection, channels);
+			}
+			return channels;
+		}
+	}
+
 	/**
 	 * Callback for the plugin channel hook
 	 *
@@ -107,8 +165,15 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 	 */
 	private final void onPluginChannelMessage(EntityPlayerMP sender, String channel, PacketBuffer data) {
 		if (PluginChannels.CHANNEL_REGISTER.equals(channel)) {
-			this.onRegisterPacketReceived(data);
-		} else if (this.pluginChannels.containsKey(channel)) {
+			this.onRegisterPacketReceived(sender, data);
+		} else if (PluginChannels.CHANNEL_UNREGISTER.equals(channel)) {
+			this.onUnregisterPacketReceived(sender, data);
+		} else {
+			int channelId = this.getChannelId(channel);
+			if (channelId < 0) {
+				return;
+			}
+
 			try {
 				PermissionsManagerServer permissionsManager = LiteLoader.getServerPermissionsManager();
 				if (permissionsManager != null) {
@@ -117,7 +182,37 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 			} catch (Exception ex) {
 			}
 
-			this.onModPacketReceived(sender, channel, data);
+			this.onModPacketReceived(sender, channelId, channel, data);
+		}
+	}
+
+	/**
+	 * @param sender
+	 * @param data
+	 */
+	protected void onRegisterPacketReceived(EntityPlayerMP sender, PacketBuffer data) {
+		String[] channels = PluginChannels.decodeChannelList(data);
+		if (channels != null) {
+			Collections.addAll(this.remotePluginChannels, channels);
+
+			Set<String> playerChannels = this.getPlayerChannels(sender, true);
+			if (playerChannels != null) {
+				Collections.addAll(playerChannels, channels);
+			}
+		}
+	}
+
+	/**
+	 * @param sender
+	 * @param data
+	 */
+	protected void onUnregisterPacketReceived(EntityPlayerMP sender, PacketBuffer data) {
+		String[] channels = PluginChannels.decodeChannelList(data);
+		Set<String> playerChannels = this.getPlayerChannels(sender, false);
+		if (channels != null && playerChannels != null) {
+			for (String channel : channels) {
+				playerChannels.remove(channel);
+			}
 		}
 	}
 
@@ -127,22 +222,24 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 	 * @param data
 	 */
 	protected void onModPacketReceived(EntityPlayerMP sender, String channel, PacketBuffer data) {
-		for (ServerPluginChannelListener pluginChannelListener : this.pluginChannels.get(channel)) {
+		int channelId = this.getChannelId(channel);
+		if (channelId > -1) {
+			this.onModPacketReceived(sender, channelId, channel, data);
+		}
+	}
+
+	/**
+	 * @param sender
+	 * @param channelId
+	 * @param channel
+	 * @param data
+	 */
+	protected void onModPacketReceived(EntityPlayerMP sender, int channelId, String channel, PacketBuffer data) {
+		for (int index = 0, count = this.getListenerCount(channelId); index < count; index++) {
 			try {
-				pluginChannelListener.onCustomPayload(sender, channel, data);
+				this.getListener(channelId, index).onCustomPayload(sender, channel, data);
 			} catch (Exception ex) {
-				int failCount = 1;
-				if (this.faultingPluginChannelListeners.containsKey(pluginChannelListener)) {
-					failCount = this.faultingPluginChannelListeners.get(pluginChannelListener).intValue() + 1;
-				}
-
-				if (failCount >= PluginChannels.WARN_FAULT_THRESHOLD) {
-					LiteLoaderLogger.warning("Plugin channel listener %s exceeded fault threshold on channel %s with %s",
-						pluginChannelListener.getName(), channel, ex.getClass().getSimpleName());
-					this.faultingPluginChannelListeners.remove(pluginChannelListener);
-				} else {
-					this.faultingPluginChannelListeners.put(pluginChannelListener, Integer.valueOf(failCount));
-				}
+				this.onListenerFault(channelId, index, channel, ex);
 			}
 		}
 	}
@@ -195,7 +292,7 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 			throw new RuntimeException("Invalid channel name specified");
 		}
 
-		if (!policy.allows(this, channel)) {
+		if (!policy.allows(this.isRemoteChannelRegistered(recipient, channel))) {
 			if (policy.isSilent()) return false;
 			throw new UnregisteredChannelException(channel);
 		}
@@ -204,6 +301,59 @@ public class ServerPluginChannels extends PluginChannels<ServerPluginChannelList
 		return ServerPluginChannels.dispatch(recipient, payload);
 	}
 
+	/**
+	 * Send the same message to multiple clients on a plugin channel. The
+	 * channel name is validated once and every recipient shares the payload
+	 * data, so the caller should encode the payload once and pass it here
+	 * rather than calling {@link #sendMessage} for each recipient. Recipients
+	 * which have not registered the channel are skipped unless the policy is
+	 * {@link ChannelPolicy#DISPATCH_ALWAYS}, no exception is thrown for
+	 * unregistered recipients regardless of the policy.
+	 *
+	 * @param recipients Recipients to send to
+	 * @param channel    Channel to send, must not be a reserved channel name
+	 * @param data
+	 * @param policy
+	 * @return number of recipients the message was dispatched to
+	 */
+	public static int broadcastMessage(Collection<EntityPlayerMP> recipients, String channel, PacketBuffer data, ChannelPolicy policy) {
+		if (ServerPluginChannels.instance != null) {
+			return ServerPluginChannels.instance.broadcast(recipients, channel, data, policy);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * @param recipients Recipients to send to
+	 * @param channel    Channel to send, must not be a reserved channel name
+	 * @param data
+	 * @param policy
+	 */
+	private int broadcast(Collection<EntityPlayerMP> recipients, String channel, PacketBuffer data, ChannelPolicy policy) {
+		if (recipients == null || recipients.isEmpty()) return 0;
+
+		if (!PluginChannels.isValidChannelName(channel)) {
+			throw new RuntimeException("Invalid channel name specified");
+		}
+
+		int sent = 0;
+		for (EntityPlayerMP recipient : recipients) {
+			if (recipient == null || !policy.allows(this.isRemoteChannelRegistered(recipient, channel))) {
+				continue;
+			}
+
+			// The packet consumes its buffer when it is written, so each
+			// recipient gets a view of the shared bytes with its own indices
+			SPacketCustomPayload payload = new SPacketCustomPayload(channel, new PacketBuffer(data.duplicate()));
+			if (ServerPluginChannels.dispatch(recipient, payload)) {
+				sent++;
+			}
+		}
+
+		return sent;
+	}
+
 	/**
 	 * @param recipient
 	 * @param payload
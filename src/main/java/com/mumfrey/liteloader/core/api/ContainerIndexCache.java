@@ -0,0 +1,214 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.mumfrey.liteloader.interfaces.ContainerIndex;
+import com.mumfrey.liteloader.interfaces.LoadableFile;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Persistent cache of container indexes so that containers which have not
+ * changed since the last launch do not need to be opened during discovery.
+ * Entries are validated against the size and modification time of the file
+ * and, if enabled, a hash of the file contents. Entries for files which were
+ * not seen during discovery are dropped when the cache is saved.
+ *
+ * @author Adam Mummery-Smith
+ */
+final class ContainerIndexCache {
+	/**
+	 * Name of the cache file in the config folder
+	 */
+	static final String FILENAME = "liteloader.containers.json";
+
+	/**
+	 * Increment when the format of the cache changes to discard old caches
+	 */
+	private static final int FORMAT = 1;
+
+	/**
+	 * Also validate entries by hashing the file contents, this still avoids
+	 * parsing the zip but means every container is read in full
+	 */
+	private static final boolean VALIDATE_HASH = Boolean.parseBoolean(System.getProperty("liteloader.enumerator.cache.hash", "false"));
+
+	private static final Gson gson = new Gson();
+
+	/**
+	 * Cached index for a single file
+	 */
+	static class Entry {
+		long size;
+
+		long lastModified;
+
+		String hash;
+
+		ContainerIndex index;
+	}
+
+	/**
+	 * Cache file contents
+	 */
+	static class Store {
+		int format;
+
+		Map<String, Entry> entries;
+	}
+
+	private final File file;
+
+	/**
+	 * Entries read from the cache file, loaded on first use
+	 */
+	private volatile Map<String, Entry> cached;
+
+	/**
+	 * Entries for files seen during this session
+	 */
+	private final Map<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+
+	private volatile boolean dirty;
+
+	ContainerIndexCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Get a candidate for the specified file, from the cache if the file is
+	 * unchanged or by reading the file
+	 *
+	 * @param file
+	 * @param entryName entry to read ahead
+	 */
+	LoadableFile read(File file, String entryName) {
+		if (file.isDirectory()) {
+			return new LoadableFile(file, entryName);
+		}
+
+		String key = file.getAbsolutePath();
+		long size = file.length();
+		long lastModified = file.lastModified();
+		String hash = ContainerIndexCache.VALIDATE_HASH ? ContainerIndexCache.hash(file) : null;
+
+		Entry entry = this.getCached().get(key);
+		if (entry != null && entry.size == size && entry.lastModified == lastModified && entry.index != null && entry.index.isComplete()
+				&& entryName.equals(entry.index.getEntryName()) && (hash == null || hash.equals(entry.hash))) {
+			this.current.put(key, entry);
+			return new LoadableFile(file, entry.index);
+		}
+
+		// Size and time are taken before reading so a file which changes whilst
+		// being read is not cached with the new time
+		LoadableFile candidateFile = new LoadableFile(file, entryName);
+		ContainerIndex index = candidateFile.getIndex();
+		if (index != null) {
+			entry = new Entry();
+			entry.size = size;
+			entry.lastModified = lastModified;
+			entry.hash = hash;
+			entry.index = index;
+			this.current.put(key, entry);
+		}
+
+		this.dirty = true;
+		return candidateFile;
+	}
+
+	/**
+	 * Write the cache if any entries were added or removed
+	 */
+	synchronized void save() {
+		if (!this.dirty && this.current.size() == this.getCached().size()) {
+			return;
+		}
+
+		Store store = new Store();
+		store.format = ContainerIndexCache.FORMAT;
+		store.entries = this.current;
+
+		File tempFile = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+		try {
+			Writer writer = Files.newWriter(tempFile, Charsets.UTF_8);
+			try {
+				ContainerIndexCache.gson.toJson(store, writer);
+			} finally {
+				writer.close();
+			}
+
+			java.nio.file.Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			this.cached = new ConcurrentHashMap<String, Entry>(this.current);
+			this.dirty = false;
+		} catch (Exception ex) {
+			LiteLoaderLogger.warning(ex, "Error writing container index cache %s", this.file);
+			tempFile.delete();
+		}
+	}
+
+	private Map<String, Entry> getCached() {
+		Map<String, Entry> cached = this.cached;
+		if (cached == null) {
+			synchronized (this) {
+				if (this.cached == null) {
+					this.cached = this.load();
+				}
+				cached = this.cached;
+			}
+		}
+
+		return cached;
+	}
+
+	private Map<String, Entry> load() {
+		Map<String, Entry> cached = new ConcurrentHashMap<String, Entry>();
+		if (!this.file.isFile()) {
+			return cached;
+		}
+
+		try {
+			Reader reader = Files.newReader(this.file, Charsets.UTF_8);
+			try {
+				Store store = ContainerIndexCache.gson.fromJson(reader, Store.class);
+				if (store != null && store.format == ContainerIndexCache.FORMAT && store.entries != null) {
+					for (Map.Entry<String, Entry> entry : store.entries.entrySet()) {
+						if (entry.getKey() != null && entry.getValue() != null) {
+							cached.put(entry.getKey(), entry.getValue());
+						}
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException ex) {
+			LiteLoaderLogger.warning(ex, "Error reading container index cache %s", this.file);
+		} catch (JsonParseException ex) {
+			LiteLoaderLogger.warning("Discarding corrupt container index cache %s", this.file);
+		}
+
+		return cached;
+	}
+
+	private static String hash(File file) {
+		try {
+			return Files.asByteSource(file).hash(Hashing.sha1()).toString();
+		} catch (IOException ex) {
+			return "";
+		}
+	}
+}
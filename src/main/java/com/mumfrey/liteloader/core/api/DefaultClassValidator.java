@@ -19,6 +19,13 @@ public class DefaultClassValidator<T> implements ModClassValidator {
 		this.superClass = superClass;
 	}
 
+	/**
+	 * Get the type which mod classes must extend or implement
+	 */
+	public Class<T> getSuperClass() {
+		return this.superClass;
+	}
+
 	@Override
 	public boolean validateName(String className) {
 		return this.supportedPrefixes == null
@@ -16,8 +16,9 @@ import com.mumfrey.liteloader.launch.LoaderProperties;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger.Verbosity;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -53,43 +54,14 @@ public class DefaultEnumeratorPlugin implements EnumeratorPlugin {
 	public boolean checkDependencies(ContainerRegistry containers, LoadableMod<?> base) {
 		if (base == null || !base.hasDependencies()) return true;
 
-		HashSet<String> circularDependencySet = new HashSet<String>();
-		circularDependencySet.add(base.getIdentifier());
-
-		boolean result = this.checkDependencies(containers, base, base, circularDependencySet);
-		LiteLoaderLogger.info(Verbosity.REDUCED, "Dependency check for %s %s", base.getIdentifier(), result ? "passed" : "failed");
-
-		return result;
-	}
-
-	private boolean checkDependencies(ContainerRegistry containers, LoadableMod<?> base, LoadableMod<?> container, Set<String> circularDependencySet) {
-		if (container.getDependencies().size() == 0) {
-			return true;
+		// Dependencies are resolved once for the whole graph, so this is just a lookup
+		Set<String> missingDependencies = containers.getDependencyGraph().getMissingDependencies(base);
+		for (String dependency : missingDependencies) {
+			base.registerMissingDependency(dependency);
 		}
 
-		boolean result = true;
-
-		for (String dependency : container.getDependencies()) {
-			if (!circularDependencySet.contains(dependency)) {
-				circularDependencySet.add(dependency);
-
-				LoadableMod<?> dependencyContainer = containers.getEnabledContainer(dependency);
-				if (dependencyContainer != LoadableMod.NONE) {
-					String identifier = dependency;
-					if (this.environment.getEnabledModsList().isEnabled(this.environment.getProfile(), identifier)) {
-						result &= this.checkDependencies(containers, base, dependencyContainer, circularDependencySet);
-					} else {
-//                        LiteLoaderLogger.warning("Dependency %s required by %s is currently disabled", dependency, base.getIdentifier());
-						base.registerMissingDependency(dependency);
-						result = false;
-					}
-				} else {
-//                    LiteLoaderLogger.info("Dependency %s for %s is was not located, no container ", dependency, base.getIdentifier());
-					base.registerMissingDependency(dependency);
-					result = false;
-				}
-			}
-		}
+		boolean result = missingDependencies.isEmpty();
+		LiteLoaderLogger.info(Verbosity.REDUCED, "Dependency check for %s %s", base.getIdentifier(), result ? "passed" : "failed");
 
 		return result;
 	}
@@ -103,11 +75,17 @@ public class DefaultEnumeratorPlugin implements EnumeratorPlugin {
 		List<Class<? extends T>> classes = new ArrayList<Class<? extends T>>();
 
 		if (container != null) {
+			ModClassScanner scanner = DefaultEnumeratorPlugin.createScanner(container, classloader, validator);
 			try {
 				for (String fullClassName : container.getContainedClassNames()) {
 					boolean isDefaultPackage = fullClassName.lastIndexOf('.') == -1;
 					String className = isDefaultPackage ? fullClassName : fullClassName.substring(fullClassName.lastIndexOf('.') + 1);
-					if (validator.validateName(className)) {
+					if (validator.validateName(className) && fullClassName.indexOf('$') < 0) {
+						// Rule out candidates from their class headers before paying to load them
+						if (scanner != null && scanner.check(fullClassName) == ModClassScanner.Result.NO_MATCH) {
+							continue;
+						}
+
 						Class<? extends T> clazz = DefaultEnumeratorPlugin.<T>checkClass(classloader, validator, fullClassName);
 						if (clazz != null && !classes.contains(clazz)) {
 							classes.add(clazz);
@@ -120,12 +98,39 @@ public class DefaultEnumeratorPlugin implements EnumeratorPlugin {
 					container, ex.getMessage());
 			} catch (Throwable th) {
 				LiteLoaderLogger.warning(th, "Enumeration error");
+			} finally {
+				if (scanner != null) {
+					try {
+						scanner.close();
+					} catch (IOException ex) {
+						// don't care
+					}
+				}
 			}
 		}
 
 		return classes;
 	}
 
+	/**
+	 * Create a header scanner for the container if the validator's target
+	 * type is known, returns null if candidates must be loaded to check them
+	 */
+	private static ModClassScanner createScanner(LoadableMod<?> container, ClassLoader classLoader, ModClassValidator validator) {
+		File file = container.toFile();
+		if (!(validator instanceof DefaultClassValidator) || file == null || !file.exists()) {
+			return null;
+		}
+
+		try {
+			String targetType = ((DefaultClassValidator<?>) validator).getSuperClass().getName().replace('.', '/');
+			return new ModClassScanner(file, classLoader, targetType);
+		} catch (IOException ex) {
+			LiteLoaderLogger.debug(ex, "Could not scan class headers in %s, candidate classes will be loaded", file);
+			return null;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private static <T> Class<? extends T> checkClass(ClassLoader classLoader, ModClassValidator validator, String className)
 		throws OutdatedLoaderException {
@@ -140,8 +145,6 @@ public class DefaultEnumeratorPlugin implements EnumeratorPlugin {
 				return (Class<? extends T>) candidateClass;
 			}
 		} catch (Throwable th) {
-			th.printStackTrace();
-
 			if (th.getCause() != null) {
 				String missingClassName = th.getCause().getMessage();
 				if (th.getCause() instanceof NoClassDefFoundError && missingClassName != null) {
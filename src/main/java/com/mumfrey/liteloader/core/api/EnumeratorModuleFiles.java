@@ -24,6 +24,10 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.net.MalformedURLException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public abstract class EnumeratorModuleFiles implements FilenameFilter, EnumeratorModule {
 	public static class ContainerEnvironment implements Iterable<ContainerEnvironment.Candidate> {
@@ -56,6 +60,23 @@ public abstract class EnumeratorModuleFiles implements FilenameFilter, Enumerato
 		 */
 		private final Map<String, Candidate> orderedCandidates = new LinkedHashMap<String, Candidate>();
 
+		/**
+		 * Cache of container contents, null if caching is disabled
+		 */
+		private final ContainerIndexCache indexCache;
+
+		public ContainerEnvironment() {
+			this.indexCache = null;
+		}
+
+		/**
+		 * @param configFolder folder in which to store the container cache
+		 */
+		public ContainerEnvironment(File configFolder) {
+			boolean enableCache = Boolean.parseBoolean(System.getProperty("liteloader.enumerator.cache", "true"));
+			this.indexCache = enableCache ? new ContainerIndexCache(new File(configFolder, ContainerIndexCache.FILENAME)) : null;
+		}
+
 		public void addCandidate(LoadableMod<File> modFile) {
 			if (!this.orderedCandidates.containsKey(modFile.getModName())) {
 				this.orderedCandidates.put(modFile.getModName(), new Candidate());
@@ -69,8 +90,29 @@ public abstract class EnumeratorModuleFiles implements FilenameFilter, Enumerato
 		public Iterator<Candidate> iterator() {
 			return this.orderedCandidates.values().iterator();
 		}
+
+		LoadableFile readCandidateFile(File file, String entryName) {
+			if (this.indexCache != null) {
+				return this.indexCache.read(file, entryName);
+			}
+
+			return new LoadableFile(file, entryName);
+		}
+
+		void saveIndexCache() {
+			if (this.indexCache != null) {
+				this.indexCache.save();
+			}
+		}
 	}
 
+	/**
+	 * Maximum number of threads used to inspect containers, 1 to inspect
+	 * containers serially
+	 */
+	private static final int INSPECTION_THREADS = Math.max(1, Integer.getInteger("liteloader.enumerator.threads",
+		Math.min(8, Runtime.getRuntime().availableProcessors())));
+
 	/**
 	 * Ordered sets used to sort mods by version/revision
 	 */
@@ -138,8 +180,17 @@ public abstract class EnumeratorModuleFiles implements FilenameFilter, Enumerato
 	 * Search the folder for (potentially) valid files
 	 */
 	protected void findValidFiles(ModularEnumerator enumerator) {
-		for (File file : this.getFiles()) {
-			LoadableFile candidateFile = new LoadableFile(file);
+		File[] files = this.getFiles();
+		LoadableFile[] candidateFiles = this.readCandidateFiles(files);
+
+		// Candidates are always added in file order, so the outcome is the same
+		// as inspecting the files serially
+		for (int i = 0; i < files.length; i++) {
+			LoadableFile candidateFile = candidateFiles[i];
+			if (candidateFile == null) {
+				continue;
+			}
+
 			candidateFile.setForceInjection(this.forceInjection());
 			try {
 				this.inspectFile(enumerator, candidateFile);
@@ -149,6 +200,61 @@ public abstract class EnumeratorModuleFiles implements FilenameFilter, Enumerato
 		}
 	}
 
+	/**
+	 * Open each file and read its manifest, metadata and class list. This is
+	 * the expensive part of discovery so files are read concurrently on a
+	 * bounded pool, each file is only opened once.
+	 *
+	 * @param files
+	 * @return candidate for each file in the same order as the supplied files,
+	 *      entries are null if the file could not be read
+	 */
+	protected LoadableFile[] readCandidateFiles(File[] files) {
+		LoadableFile[] candidateFiles = new LoadableFile[files.length];
+		int threads = Math.min(EnumeratorModuleFiles.INSPECTION_THREADS, files.length);
+		if (threads < 2) {
+			for (int i = 0; i < files.length; i++) {
+				candidateFiles[i] = this.readCandidateFile(files[i]);
+			}
+			return candidateFiles;
+		}
+
+		List<Callable<LoadableFile>> tasks = new ArrayList<Callable<LoadableFile>>(files.length);
+		for (final File file : files) {
+			tasks.add(new Callable<LoadableFile>() {
+				@Override
+				public LoadableFile call() throws Exception {
+					return EnumeratorModuleFiles.this.readCandidateFile(file);
+				}
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<Future<LoadableFile>> results = pool.invokeAll(tasks);
+			for (int i = 0; i < files.length; i++) {
+				try {
+					candidateFiles[i] = results.get(i).get();
+				} catch (ExecutionException ex) {
+					LiteLoaderLogger.warning(ex.getCause(), "An error occurred whilst inspecting %s", files[i]);
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+		}
+
+		return candidateFiles;
+	}
+
+	/**
+	 * @param file
+	 */
+	protected LoadableFile readCandidateFile(File file) {
+		return this.containers.readCandidateFile(file, LoadableMod.METADATA_FILENAME);
+	}
+
 	/**
 	 * Check whether a particular file is valid, and add it to the candiates
 	 * list if it appears to be acceptable.
@@ -274,6 +380,9 @@ public abstract class EnumeratorModuleFiles implements FilenameFilter, Enumerato
 	 * @param enumerator
 	 */
 	protected void sortAndRegisterFiles(ModularEnumerator enumerator) {
+		// All modules have finished discovery by the time files are registered
+		this.containers.saveIndexCache();
+
 		// Copy the first entry in every version set into the modfiles list
 		for (Candidate candidate : this.containers) {
 			if (candidate.isRegistered()) {
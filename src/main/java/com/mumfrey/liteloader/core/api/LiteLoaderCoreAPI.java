@@ -123,7 +123,7 @@ public abstract class LiteLoaderCoreAPI implements LiteAPI, MixinConfigProvider
 			enumeratorModules.add(new EnumeratorModuleClassPath());
 		}
 
-		ContainerEnvironment containers = new ContainerEnvironment();
+		ContainerEnvironment containers = new ContainerEnvironment(this.environment.getConfigBaseFolder());
 
 		if (this.searchModsFolder) {
 			File modsFolder = this.environment.getModsFolder();
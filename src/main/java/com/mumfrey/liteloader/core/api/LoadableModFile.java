@@ -381,6 +381,11 @@ public class LoadableModFile extends LoadableFile implements LoadableMod<File> {
 	}
 
 	protected List<String> enumerateClassNames() {
+		List<String> prefetchedClassNames = this.getPrefetchedClassNames();
+		if (prefetchedClassNames != null) {
+			return prefetchedClassNames;
+		}
+
 		if (this.isDirectory()) {
 			return LoadableModFile.enumerateDirectory(new ArrayList<String>(), this, "", 0);
 		}
@@ -413,15 +418,31 @@ public class LoadableModFile extends LoadableFile implements LoadableMod<File> {
 	}
 
 	protected static List<String> enumerateZipFile(File file) {
-		List<String> classes = new ArrayList<String>();
-
 		ZipFile zipFile;
 		try {
 			zipFile = new ZipFile(file);
 		} catch (IOException ex) {
-			return classes;
+			return new ArrayList<String>();
+		}
+
+		List<String> classes = LoadableModFile.enumerateZipFile(zipFile);
+
+		try {
+			zipFile.close();
+		} catch (IOException ex) {
 		}
 
+		return classes;
+	}
+
+	/**
+	 * Enumerate classes in an already open zip file, the zip is not closed
+	 *
+	 * @param zipFile
+	 */
+	public static List<String> enumerateZipFile(ZipFile zipFile) {
+		List<String> classes = new ArrayList<String>();
+
 		@SuppressWarnings("unchecked")
 		Enumeration<ZipEntry> entries = (Enumeration<ZipEntry>) zipFile.entries();
 		while (entries.hasMoreElements()) {
@@ -432,11 +453,6 @@ public class LoadableModFile extends LoadableFile implements LoadableMod<File> {
 			}
 		}
 
-		try {
-			zipFile.close();
-		} catch (IOException ex) {
-		}
-
 		return classes;
 	}
 
@@ -0,0 +1,233 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.api;
+
+import com.google.common.io.ByteStreams;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads class file headers (superclass and interfaces) straight from a mod
+ * container so that candidate mod classes can be checked against the mod
+ * base type without loading them. Types outside the container are read from
+ * the class loader's resources. Headers and subtype results are memoised so
+ * each type in the hierarchy is only read once per scan.
+ *
+ * @author Adam Mummery-Smith
+ */
+class ModClassScanner implements Closeable {
+	/**
+	 * Header of a single class file
+	 */
+	static final class ClassHeader {
+		final String superName;
+
+		final String[] interfaces;
+
+		final boolean isInterface;
+
+		ClassHeader(ClassReader reader) {
+			this.superName = reader.getSuperName();
+			this.interfaces = reader.getInterfaces();
+			this.isInterface = (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0;
+		}
+	}
+
+	/**
+	 * Result of checking a candidate
+	 */
+	enum Result {
+		/**
+		 * The class is definitely a subtype of the target type
+		 */
+		MATCH,
+
+		/**
+		 * The class is definitely not a subtype of the target type
+		 */
+		NO_MATCH,
+
+		/**
+		 * The hierarchy could not be fully resolved, the class must be loaded
+		 * to find out
+		 */
+		UNKNOWN
+	}
+
+	private final File container;
+
+	private final ClassLoader classLoader;
+
+	private ZipFile zipFile;
+
+	/**
+	 * Cached headers by internal name, null values indicate the class could
+	 * not be read
+	 */
+	private final Map<String, ClassHeader> headers = new HashMap<String, ClassHeader>();
+
+	/**
+	 * Memoised subtype results by internal name
+	 */
+	private final Map<String, Result> results = new HashMap<String, Result>();
+
+	private final String targetType;
+
+	/**
+	 * @param container mod container file or directory
+	 * @param classLoader class loader to read types outside the container from
+	 * @param targetType internal name of the type to look for
+	 */
+	ModClassScanner(File container, ClassLoader classLoader, String targetType) throws IOException {
+		this.container = container;
+		this.classLoader = classLoader;
+		this.targetType = targetType;
+		if (container.isFile()) {
+			this.zipFile = new ZipFile(container);
+		}
+	}
+
+	/**
+	 * Check whether the specified class is a concrete subtype of the target
+	 * type
+	 *
+	 * @param className binary class name
+	 */
+	Result check(String className) {
+		String internalName = className.replace('.', '/');
+		ClassHeader header = this.getHeader(internalName);
+		if (header == null) {
+			return Result.UNKNOWN;
+		}
+
+		if (header.isInterface || internalName.equals(this.targetType)) {
+			return Result.NO_MATCH;
+		}
+
+		return this.isSubtype(internalName);
+	}
+
+	private Result isSubtype(String internalName) {
+		if (internalName.equals(this.targetType)) {
+			return Result.MATCH;
+		}
+
+		if (internalName.startsWith("java/")) {
+			return Result.NO_MATCH;
+		}
+
+		Result result = this.results.get(internalName);
+		if (result != null) {
+			return result;
+		}
+
+		// Guard against malformed circular hierarchies
+		this.results.put(internalName, Result.UNKNOWN);
+
+		ClassHeader header = this.getHeader(internalName);
+		if (header == null) {
+			result = Result.UNKNOWN;
+		} else {
+			result = header.superName != null ? this.isSubtype(header.superName) : Result.NO_MATCH;
+			for (int i = 0; result != Result.MATCH && i < header.interfaces.length; i++) {
+				Result interfaceResult = this.isSubtype(header.interfaces[i]);
+				if (interfaceResult != Result.NO_MATCH) {
+					result = interfaceResult;
+				}
+			}
+		}
+
+		this.results.put(internalName, result);
+		return result;
+	}
+
+	private ClassHeader getHeader(String internalName) {
+		if (this.headers.containsKey(internalName)) {
+			return this.headers.get(internalName);
+		}
+
+		ClassHeader header = null;
+		try {
+			byte[] bytes = this.readContainerClass(internalName);
+			if (bytes == null) {
+				bytes = this.readClassLoaderClass(internalName);
+			}
+
+			if (bytes != null) {
+				header = new ClassHeader(new ClassReader(bytes));
+			}
+		} catch (Exception ex) {
+			LiteLoaderLogger.debug(ex, "Error reading class header for %s", internalName);
+		}
+
+		this.headers.put(internalName, header);
+		return header;
+	}
+
+	private byte[] readContainerClass(String internalName) throws IOException {
+		String path = internalName + ".class";
+		if (this.zipFile != null) {
+			ZipEntry entry = this.zipFile.getEntry(path);
+			if (entry == null) {
+				return null;
+			}
+
+			InputStream stream = this.zipFile.getInputStream(entry);
+			try {
+				return ByteStreams.toByteArray(stream);
+			} finally {
+				stream.close();
+			}
+		}
+
+		File classFile = new File(this.container, path);
+		if (!classFile.isFile()) {
+			return null;
+		}
+
+		InputStream stream = new FileInputStream(classFile);
+		try {
+			return ByteStreams.toByteArray(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private byte[] readClassLoaderClass(String internalName) throws IOException {
+		InputStream stream = this.classLoader.getResourceAsStream(internalName + ".class");
+		if (stream == null) {
+			return null;
+		}
+
+		try {
+			return ByteStreams.toByteArray(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.zipFile != null) {
+			this.zipFile.close();
+			this.zipFile = null;
+		}
+	}
+}
@@ -0,0 +1,511 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.event;
+
+import com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp;
+import com.mumfrey.liteloader.interfaces.FastIterableDeque;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write counterpart to {@link HandlerList} which is safe to modify
+ * from any thread while another thread is dispatching. The list contents are
+ * held in an immutable snapshot which is replaced atomically on every
+ * modification, each snapshot carries its own baked handler so a dispatching
+ * thread always sees a complete handler list for a consistent set of entries
+ * and never takes a lock.
+ *
+ * <p>Modifications are considerably more expensive than for a regular
+ * HandlerList since the backing array is copied every time, this list is
+ * therefore only appropriate where registration is rare compared to
+ * dispatch.</p>
+ *
+ * @param <T>
+ * @author Adam Mummery-Smith
+ */
+public class ConcurrentHandlerList<T> extends AbstractCollection<T> implements FastIterableDeque<T> {
+	private static final Object[] EMPTY = new Object[0];
+
+	/**
+	 * Immutable view of the list contents along with the handler baked from
+	 * them
+	 *
+	 * @param <T>
+	 */
+	static final class Snapshot<T> {
+		final Object[] entries;
+
+		/**
+		 * Baked handler, lazily populated by the first thread to call all().
+		 * If two threads race to bake the same snapshot they will produce
+		 * equivalent handlers so the loser's handler is simply discarded.
+		 */
+		volatile T baked;
+
+		Snapshot(Object[] entries) {
+			this.entries = entries;
+		}
+
+		@SuppressWarnings("unchecked")
+		T get(int index) {
+			return (T) this.entries[index];
+		}
+
+		int indexOf(Object entry) {
+			for (int index = 0; index < this.entries.length; index++) {
+				if (this.entries[index].equals(entry)) {
+					return index;
+				}
+			}
+
+			return -1;
+		}
+
+		Object[] without(int index) {
+			Object[] updated = new Object[this.entries.length - 1];
+			System.arraycopy(this.entries, 0, updated, 0, index);
+			System.arraycopy(this.entries, index + 1, updated, index, this.entries.length - index - 1);
+			return updated;
+		}
+	}
+
+	/**
+	 * Type of the interface for objects in this handler list
+	 */
+	private final Class<T> type;
+
+	/**
+	 * Logic operation to apply to interface methods which return boolean
+	 */
+	private final ReturnLogicOp logicOp;
+
+	/**
+	 * True to sort the list when baking
+	 */
+	private final boolean sorted;
+
+	/**
+	 * Current snapshot
+	 */
+	private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<Snapshot<T>>(new Snapshot<T>(ConcurrentHandlerList.EMPTY));
+
+	/**
+	 * @param type
+	 */
+	public ConcurrentHandlerList(Class<T> type) {
+		this(type, ReturnLogicOp.AND_BREAK_ON_FALSE);
+	}
+
+	/**
+	 * @param type
+	 * @param logicOp Logical operation to apply to interface methods which
+	 *                return boolean
+	 */
+	public ConcurrentHandlerList(Class<T> type, ReturnLogicOp logicOp) {
+		this(type, logicOp, true);
+	}
+
+	/**
+	 * @param type
+	 * @param logicOp Logical operation to apply to interface methods which
+	 *                return boolean
+	 * @param sorted  True to sort the list when baking (doesn't sort the
+	 *                underlying list)
+	 */
+	public ConcurrentHandlerList(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+		if (!type.isInterface()) {
+			throw new IllegalArgumentException("HandlerList type argument must be an interface");
+		}
+
+		this.type = type;
+		this.logicOp = logicOp;
+		this.sorted = sorted;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.mumfrey.liteloader.interfaces.FastIterable#all()
+	 */
+	@Override
+	public T all() {
+		Snapshot<T> snapshot = this.snapshot.get();
+		T baked = snapshot.baked;
+		if (baked == null) {
+			baked = this.bake(snapshot);
+			snapshot.baked = baked;
+		}
+
+		return baked;
+	}
+
+	/**
+	 * Bake the supplied snapshot. The snapshot is copied into a HandlerList
+	 * which is confined to the calling thread and is then discarded.
+	 */
+	private T bake(Snapshot<T> snapshot) {
+		HandlerList<T> baker = this.createBaker(this.type, this.logicOp, this.sorted);
+		for (Object entry : snapshot.entries) {
+			baker.add(this.type.cast(entry));
+		}
+
+		return baker.all();
+	}
+
+	/**
+	 * Create the HandlerList used to bake a snapshot, subclasses can override
+	 * this to supply a decorated list
+	 */
+	protected HandlerList<T> createBaker(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+		return new HandlerList<T>(type, logicOp, sorted);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.mumfrey.liteloader.interfaces.FastIterable#invalidate()
+	 */
+	@Override
+	public void invalidate() {
+		Snapshot<T> current;
+		do {
+			current = this.snapshot.get();
+		} while (!this.snapshot.compareAndSet(current, new Snapshot<T>(current.entries)));
+	}
+
+	private boolean insert(T entry, boolean first) {
+		if (entry == null) {
+			throw new NullPointerException("Cannot add null to a HandlerList");
+		}
+
+		while (true) {
+			Snapshot<T> current = this.snapshot.get();
+			if (current.indexOf(entry) > -1) {
+				return false;
+			}
+
+			Object[] entries = current.entries;
+			Object[] updated = new Object[entries.length + 1];
+			System.arraycopy(entries, 0, updated, first ? 1 : 0, entries.length);
+			updated[first ? 0 : entries.length] = entry;
+
+			if (this.snapshot.compareAndSet(current, new Snapshot<T>(updated))) {
+				return true;
+			}
+		}
+	}
+
+	private T pollEntry(boolean last) {
+		while (true) {
+			Snapshot<T> current = this.snapshot.get();
+			if (current.entries.length == 0) {
+				return null;
+			}
+
+			int index = last ? current.entries.length - 1 : 0;
+			if (this.snapshot.compareAndSet(current, new Snapshot<T>(current.without(index)))) {
+				return current.get(index);
+			}
+		}
+	}
+
+	private T peekEntry(boolean last) {
+		Snapshot<T> current = this.snapshot.get();
+		if (current.entries.length == 0) {
+			return null;
+		}
+
+		return current.get(last ? current.entries.length - 1 : 0);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return this.snapshot.get().entries.length;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object listener) {
+		return this.snapshot.get().indexOf(listener) > -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new SnapshotIterator(this.snapshot.get(), false);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Deque#descendingIterator()
+	 */
+	@Override
+	public Iterator<T> descendingIterator() {
+		return new SnapshotIterator(this.snapshot.get(), true);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T listener) {
+		this.insert(listener, false);
+		return true;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> listeners) {
+		Object[] incoming = listeners.toArray();
+		for (Object listener : incoming) {
+			if (listener == null) {
+				throw new NullPointerException("Cannot add null to a HandlerList");
+			}
+		}
+
+		while (true) {
+			Snapshot<T> current = this.snapshot.get();
+			Object[] updated = new Object[current.entries.length + incoming.length];
+			System.arraycopy(current.entries, 0, updated, 0, current.entries.length);
+			int size = current.entries.length;
+
+			outer:
+			for (Object listener : incoming) {
+				for (int index = 0; index < size; index++) {
+					if (updated[index].equals(listener)) {
+						continue outer;
+					}
+				}
+				updated[size++] = listener;
+			}
+
+			if (size < updated.length) {
+				Object[] trimmed = new Object[size];
+				System.arraycopy(updated, 0, trimmed, 0, size);
+				updated = trimmed;
+			}
+
+			if (this.snapshot.compareAndSet(current, new Snapshot<T>(updated))) {
+				return true;
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object listener) {
+		while (true) {
+			Snapshot<T> current = this.snapshot.get();
+			int index = current.indexOf(listener);
+			if (index < 0) {
+				return false;
+			}
+
+			if (this.snapshot.compareAndSet(current, new Snapshot<T>(current.without(index)))) {
+				return true;
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> listeners) {
+		boolean removed = false;
+		for (Object listener : listeners) {
+			removed |= this.remove(listener);
+		}
+		return removed;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#clear()
+	 */
+	@Override
+	public void clear() {
+		this.snapshot.set(new Snapshot<T>(ConcurrentHandlerList.EMPTY));
+	}
+
+	@Override
+	public void addFirst(T listener) {
+		this.insert(listener, true);
+	}
+
+	@Override
+	public void addLast(T listener) {
+		this.insert(listener, false);
+	}
+
+	@Override
+	public boolean offerFirst(T listener) {
+		this.addFirst(listener);
+		return true;
+	}
+
+	@Override
+	public boolean offerLast(T listener) {
+		this.addLast(listener);
+		return true;
+	}
+
+	@Override
+	public boolean offer(T listener) {
+		return this.add(listener);
+	}
+
+	@Override
+	public void push(T listener) {
+		this.addFirst(listener);
+	}
+
+	@Override
+	public T removeFirst() {
+		T removed = this.pollEntry(false);
+		if (removed == null) {
+			throw new NoSuchElementException();
+		}
+		return removed;
+	}
+
+	@Override
+	public T removeLast() {
+		T removed = this.pollEntry(true);
+		if (removed == null) {
+			throw new NoSuchElementException();
+		}
+		return removed;
+	}
+
+	@Override
+	public T remove() {
+		return this.removeFirst();
+	}
+
+	@Override
+	public T pop() {
+		return this.removeFirst();
+	}
+
+	@Override
+	public T pollFirst() {
+		return this.pollEntry(false);
+	}
+
+	@Override
+	public T pollLast() {
+		return this.pollEntry(true);
+	}
+
+	@Override
+	public T poll() {
+		return this.pollEntry(false);
+	}
+
+	@Override
+	public T getFirst() {
+		T first = this.peekEntry(false);
+		if (first == null) {
+			throw new NoSuchElementException();
+		}
+		return first;
+	}
+
+	@Override
+	public T getLast() {
+		T last = this.peekEntry(true);
+		if (last == null) {
+			throw new NoSuchElementException();
+		}
+		return last;
+	}
+
+	@Override
+	public T element() {
+		return this.getFirst();
+	}
+
+	@Override
+	public T peekFirst() {
+		return this.peekEntry(false);
+	}
+
+	@Override
+	public T peekLast() {
+		return this.peekEntry(true);
+	}
+
+	@Override
+	public T peek() {
+		return this.peekEntry(false);
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object listener) {
+		return this.remove(listener);
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object listener) {
+		// Entries are unique so first and last occurrence are the same
+		return this.remove(listener);
+	}
+
+	/**
+	 * Iterator over a single snapshot, never throws
+	 * ConcurrentModificationException. Removal is applied to the live list.
+	 */
+	class SnapshotIterator implements Iterator<T> {
+		private final Snapshot<T> snapshot;
+
+		private final boolean descending;
+
+		private int cursor;
+
+		private T lastReturned;
+
+		SnapshotIterator(Snapshot<T> snapshot, boolean descending) {
+			this.snapshot = snapshot;
+			this.descending = descending;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor < this.snapshot.entries.length;
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			int index = this.cursor++;
+			this.lastReturned = this.snapshot.get(this.descending ? this.snapshot.entries.length - 1 - index : index);
+			return this.lastReturned;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastReturned == null) {
+				throw new IllegalStateException();
+			}
+
+			ConcurrentHandlerList.this.remove(this.lastReturned);
+			this.lastReturned = null;
+		}
+	}
+}
@@ -36,9 +36,10 @@ import java.util.*;
 public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T> {
 	private static final long serialVersionUID = 1L;
 
-	private static final int MAX_UNCOLLECTED_CLASSES = 5000;
-
-	private static int uncollectedHandlerLists = 0;
+	/**
+	 * Minimum number of slots to generate when baking a slotted list
+	 */
+	private static final int MIN_SLOT_CAPACITY = 8;
 
 	/**
 	 * Enum for logic operations supported between handlers which return bool
@@ -124,6 +125,19 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 	 */
 	private boolean sorted;
 
+	/**
+	 * True to bake the list into a class with a fixed number of slots which
+	 * is reused when the list membership changes
+	 */
+	private boolean slotted;
+
+	/**
+	 * Classloader which generated the current slotted class, retained so that
+	 * membership changes can repopulate the existing class instead of
+	 * generating a new one
+	 */
+	private transient HandlerListClassLoader<T> slotLoader;
+
 	/**
 	 * @param type
 	 */
@@ -148,6 +162,21 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 	 *                underlying list)
 	 */
 	public HandlerList(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+		this(type, logicOp, sorted, false);
+	}
+
+	/**
+	 * @param type
+	 * @param logicOp Logical operation to apply to interface methods which
+	 *                return boolean
+	 * @param sorted  True to sort the list when baking (doesn't sort the
+	 *                underlying list)
+	 * @param slotted True to bake the list into a fixed-capacity class which
+	 *                is repopulated rather than regenerated when entries are
+	 *                added or removed, use this for lists with frequently
+	 *                changing membership
+	 */
+	public HandlerList(Class<T> type, ReturnLogicOp logicOp, boolean sorted, boolean slotted) {
 		if (!type.isInterface()) {
 			throw new IllegalArgumentException("HandlerList type argument must be an interface");
 		}
@@ -155,6 +184,14 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		this.type = type;
 		this.logicOp = logicOp;
 		this.sorted = sorted;
+		this.slotted = slotted;
+	}
+
+	/**
+	 * Get the listener interface type of this list
+	 */
+	public Class<T> getType() {
+		return this.type;
 	}
 
 	/**
@@ -172,6 +209,25 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		this.invalidate();
 	}
 
+	/**
+	 * True if the list will be baked into a fixed-capacity slotted class
+	 */
+	public boolean isSlotted() {
+		return this.slotted;
+	}
+
+	/**
+	 * Set whether to bake the list into a fixed-capacity class which is
+	 * repopulated rather than regenerated when the list membership changes.
+	 * Slotted baking is not supported for lists which supply a decorator, and
+	 * such lists are always regenerated.
+	 */
+	public void setSlotted(boolean slotted) {
+		this.slotted = slotted;
+		this.slotLoader = null;
+		this.invalidate();
+	}
+
 	@SuppressWarnings("unchecked")
 	protected List<T> getSortedList() {
 		if (!this.sorted) return this;
@@ -217,7 +273,13 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 	 * Bake the current handler list
 	 */
 	protected void bake() {
-		HandlerListClassLoader<T> classLoader = new HandlerListClassLoader<T>(this.type, this.logicOp, this.getDecorator());
+		IHandlerListDecorator<T> decorator = this.getDecorator();
+		if (this.slotted && decorator == null) {
+			this.bakeSlotted();
+			return;
+		}
+
+		HandlerListClassLoader<T> classLoader = new HandlerListClassLoader<T>(this.type, this.logicOp, decorator);
 		this.bakedHandler = classLoader.newHandler(this);
 		try {
 			classLoader.close();
@@ -225,6 +287,32 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		}
 	}
 
+	/**
+	 * Bake the current handler list into the existing slotted class if it has
+	 * sufficient capacity, otherwise generate a new slotted class with the
+	 * capacity doubled until the list fits
+	 */
+	private void bakeSlotted() {
+		int size = this.size();
+		if (this.slotLoader != null && size <= this.slotLoader.getCapacity()) {
+			this.bakedHandler = this.slotLoader.repopulate(this);
+			return;
+		}
+
+		int capacity = HandlerList.MIN_SLOT_CAPACITY;
+		while (capacity < size) {
+			capacity <<= 1;
+		}
+
+		HandlerListClassLoader<T> classLoader = new HandlerListClassLoader<T>(this.type, this.logicOp, null);
+		this.bakedHandler = classLoader.newHandler(this, capacity);
+		this.slotLoader = classLoader;
+		try {
+			classLoader.close();
+		} catch (IOException ex) {
+		}
+	}
+
 	protected IHandlerListDecorator<T> getDecorator() {
 		return null;
 	}
@@ -234,16 +322,7 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 	 */
 	@Override
 	public void invalidate() {
-		if (this.bakedHandler == null) {
-			return;
-		}
-
 		this.bakedHandler = null;
-		HandlerList.uncollectedHandlerLists++;
-		if (HandlerList.uncollectedHandlerLists > HandlerList.MAX_UNCOLLECTED_CLASSES) {
-			System.gc();
-			HandlerList.uncollectedHandlerLists = 0;
-		}
 	}
 
 	/* (non-Javadoc)
@@ -547,6 +626,23 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		 */
 		private int size;
 
+		/**
+		 * True if the generated class has a fixed number of slots, in which
+		 * case empty slots contain null and are skipped when invoking
+		 */
+		private boolean slotted;
+
+		/**
+		 * Key of the generated class in the {@link HandlerListCache}, null if
+		 * the class is not cacheable
+		 */
+		private String cacheKey;
+
+		/**
+		 * Generated class, retained for repopulating slotted lists
+		 */
+		private Class<BakedHandlerList<T>> handlerClass;
+
 		/**
 		 * @param type
 		 * @param logicOp
@@ -562,34 +658,111 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		/**
 		 * Create and return a new baked handler list
 		 */
-		@SuppressWarnings("unchecked")
 		public BakedHandlerList<T> newHandler(HandlerList<T> list) {
-			this.size = list.size();
+			return this.newHandler(list, 0);
+		}
+
+		/**
+		 * Create and return a new baked handler list, if capacity is greater
+		 * than zero then a slotted class with the specified number of slots is
+		 * generated, otherwise the class is generated for the exact size of the
+		 * list.
+		 */
+		@SuppressWarnings("unchecked")
+		BakedHandlerList<T> newHandler(HandlerList<T> list, int capacity) {
+			this.slotted = capacity > 0;
+			this.size = this.slotted ? capacity : list.size();
 			List<T> sortedList = list.getSortedList();
 
 			if (this.decorator != null) {
 				this.decorator.prepare(sortedList);
 			}
 
-			Class<BakedHandlerList<T>> handlerClass;
+			Class<BakedHandlerList<T>> handlerClass = this.loadCachedClass();
 
-			try {
-				// Inflect the class name and attempt to generate the class
-				String className = HandlerListClassLoader.getNextClassName(Obf.HandlerList.name, this.type.getSimpleName());
-				handlerClass = (Class<BakedHandlerList<T>>) this.loadClass(className);
-			} catch (ClassNotFoundException ex) {
-				throw new BakingFailedException(ex);
+			if (handlerClass == null) {
+				try {
+					// Inflect the class name and attempt to generate the class
+					String className = HandlerListClassLoader.getNextClassName(Obf.HandlerList.name, this.type.getSimpleName());
+					handlerClass = (Class<BakedHandlerList<T>>) this.loadClass(className);
+				} catch (ClassNotFoundException ex) {
+					throw new BakingFailedException(ex);
+				}
+			}
+
+			this.handlerClass = handlerClass;
+			return this.createPopulated(sortedList);
+		}
+
+		/**
+		 * Get the number of slots in the generated slotted class
+		 */
+		int getCapacity() {
+			return this.slotted ? this.size : 0;
+		}
+
+		/**
+		 * Create a new instance of the previously generated slotted class and
+		 * populate it with the current contents of the supplied list. A new
+		 * instance is used rather than repopulating the current one so that
+		 * any invocation in progress is not disturbed.
+		 */
+		BakedHandlerList<T> repopulate(HandlerList<T> list) {
+			if (!this.slotted || this.handlerClass == null || list.size() > this.size) {
+				throw new IllegalStateException("Cannot repopulate handler list for " + this.type.getSimpleName());
+			}
+
+			return this.createPopulated(list.getSortedList());
+		}
+
+		private BakedHandlerList<T> createPopulated(List<T> sortedList) {
+			if (this.slotted) {
+				List<T> slots = new ArrayList<T>(this.size);
+				slots.addAll(sortedList);
+				while (slots.size() < this.size) {
+					slots.add(null);
+				}
+				sortedList = slots;
 			}
 
 			try {
 				// Create an instance of the class, populate the entries from the supplied list and return it
-				BakedHandlerList<T> handlerList = this.createInstance(handlerClass);
+				BakedHandlerList<T> handlerList = this.createInstance(this.handlerClass);
 				return handlerList.populate(sortedList);
 			} catch (InstantiationException ex) {
 				throw new BakingFailedException(ex);
 			}
 		}
 
+		/**
+		 * Attempt to define the handler class from bytecode generated by a
+		 * previous session, returns null if no usable cached class exists
+		 */
+		@SuppressWarnings("unchecked")
+		private Class<BakedHandlerList<T>> loadCachedClass() {
+			if (HandlerListClassLoader.DUMP || HandlerListClassLoader.VALIDATE) {
+				return null;
+			}
+
+			this.cacheKey = HandlerListCache.getKey(this.type, this.logicOp, this.decorator, this.size, this.slotted, this.getTemplate());
+			if (this.cacheKey == null) {
+				return null;
+			}
+
+			byte[] bytes = HandlerListCache.load(this.cacheKey);
+			if (bytes == null) {
+				return null;
+			}
+
+			try {
+				LiteLoaderLogger.debug("Loading cached listener list for %s with %d listeners", this.type.getSimpleName(), this.size);
+				return (Class<BakedHandlerList<T>>) this.defineClass(null, bytes, 0, bytes.length);
+			} catch (LinkageError err) {
+				HandlerListCache.evict(this.cacheKey);
+				return null;
+			}
+		}
+
 		/**
 		 * Create an instance of the baked class
 		 *
@@ -643,6 +816,10 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 					FileUtils.writeByteArrayToFile(new File(".classes/" + name.replace('.', '/') + ".class"), bytes);
 				}
 
+				if (this.cacheKey != null) {
+					HandlerListCache.store(this.cacheKey, bytes);
+				}
+
 				// Delegate to ClassLoader's usual behaviour to load the class we just generated
 				return this.defineClass(name, bytes, 0, bytes.length);
 			} catch (Throwable th) {
@@ -667,7 +844,7 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		 * @throws IOException
 		 */
 		private void transform(String name, ClassNode classNode) throws IOException {
-			LiteLoaderLogger.info("Baking listener list for %s with %d listeners", this.type.getSimpleName(), this.size);
+			LiteLoaderLogger.info("Baking listener list for %s with %d %s", this.type.getSimpleName(), this.size, this.slotted ? "slots" : "listeners");
 			LiteLoaderLogger.debug("Generating: %s", name);
 
 			this.populateClass(name, classNode);
@@ -845,10 +1022,12 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 		private void populateVoidinvocationChain(ClassNode classNode, MethodNode method, Type[] args, Type returnType) {
 			int returnSize = returnType.getSize();
 			for (int handlerIndex = 0; handlerIndex < this.size; handlerIndex++) {
+				LabelNode skip = this.checkSlot(handlerIndex, classNode, method);
 				this.invokeHandler(handlerIndex, classNode, method, args);
 				if (returnSize > 0) {
 					method.instructions.add(new InsnNode(returnSize == 1 ? Opcodes.POP : Opcodes.POP2));
 				}
+				this.endSlot(method, skip);
 			}
 
 			if (returnSize > 0) {
@@ -879,10 +1058,25 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 			int initialValue = isOrOperation && (!this.logicOp.assumeTrue() || this.size > 0) ? Opcodes.ICONST_0 : Opcodes.ICONST_1;
 			int localIndex = ByteCodeUtilities.getArgsSize(args) + 1;
 
+			// For slotted lists we can't know at generation time whether the list is empty, so track it at runtime
+			boolean trackInvoked = this.slotted && isOrOperation && this.logicOp.assumeTrue();
+			int invokedIndex = localIndex + 1;
+
 			method.instructions.add(new InsnNode(initialValue));
 			method.instructions.add(new VarInsnNode(Opcodes.ISTORE, localIndex));
 
+			if (trackInvoked) {
+				method.instructions.add(new InsnNode(Opcodes.ICONST_0));
+				method.instructions.add(new VarInsnNode(Opcodes.ISTORE, invokedIndex));
+			}
+
 			for (int handlerIndex = 0; handlerIndex < this.size; handlerIndex++) {
+				LabelNode skip = this.checkSlot(handlerIndex, classNode, method);
+				if (trackInvoked) {
+					method.instructions.add(new InsnNode(Opcodes.ICONST_1));
+					method.instructions.add(new VarInsnNode(Opcodes.ISTORE, invokedIndex));
+				}
+
 				this.invokeHandler(handlerIndex, classNode, method, args); // invoke the method, this will leave the return value on the stack
 
 				int jumpCondition = isOrOperation ? Opcodes.IFEQ : Opcodes.IFNE;     // jump if zero for OR, jump if one for AND
@@ -894,6 +1088,17 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 				// set local or return
 				method.instructions.add(breakOnMatch ? new InsnNode(Opcodes.IRETURN) : new VarInsnNode(Opcodes.ISTORE, localIndex));
 				method.instructions.add(lbl); // jump here
+				this.endSlot(method, skip);
+			}
+
+			if (trackInvoked) {
+				// No handlers were invoked, so the list was empty: assume TRUE
+				LabelNode notEmpty = new LabelNode();
+				method.instructions.add(new VarInsnNode(Opcodes.ILOAD, invokedIndex));
+				method.instructions.add(new JumpInsnNode(Opcodes.IFNE, notEmpty));
+				method.instructions.add(new InsnNode(Opcodes.ICONST_1));
+				method.instructions.add(new InsnNode(Opcodes.IRETURN));
+				method.instructions.add(notEmpty);
 			}
 
 			method.instructions.add(new VarInsnNode(Opcodes.ILOAD, localIndex));
@@ -903,6 +1108,40 @@ public class HandlerList<T> extends LinkedList<T> implements FastIterableDeque<T
 			method.maxStack = localIndex + 1;
 		}
 
+		/**
+		 * For slotted lists, inject a null check on the specified slot which
+		 * jumps to the returned label if the slot is empty. Returns null for
+		 * non-slotted lists.
+		 *
+		 * @param handlerIndex
+		 * @param classNode
+		 * @param method
+		 */
+		private LabelNode checkSlot(int handlerIndex, ClassNode classNode, MethodNode method) {
+			if (!this.slotted) {
+				return null;
+			}
+
+			LabelNode skip = new LabelNode();
+			method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+			method.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, HandlerListClassLoader.HANDLER_VAR_PREFIX + handlerIndex,
+				"L" + this.typeRef + ";"));
+			method.instructions.add(new JumpInsnNode(Opcodes.IFNULL, skip));
+			return skip;
+		}
+
+		/**
+		 * Inject the label returned by checkSlot, if any
+		 *
+		 * @param method
+		 * @param skip
+		 */
+		private void endSlot(MethodNode method, LabelNode skip) {
+			if (skip != null) {
+				method.instructions.add(skip);
+			}
+		}
+
 		/**
 		 * @param handlerIndex
 		 * @param classNode
@@ -0,0 +1,291 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.event;
+
+import com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp;
+import com.mumfrey.liteloader.core.runtime.Obf;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+import net.minecraft.launchwrapper.IClassTransformer;
+import net.minecraft.launchwrapper.Launch;
+import org.apache.commons.io.FileUtils;
+import top.outlands.foundation.TransformerDelegate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed disk cache for the bytecode generated by
+ * HandlerListClassLoader. Baked classes are keyed by everything which can
+ * influence the generated code: the listener interface (and the bytes of its
+ * hierarchy), the logic op, the decorator (and the bytes of its class), the
+ * handler count or slot capacity, the bytes of the template and generator
+ * classes and the names of all registered transformers. A subsequent launch with the same inputs can then
+ * define the cached class directly instead of regenerating it.
+ *
+ * <p>The cache is inactive until {@link #init} is called by the bootstrap,
+ * and can be disabled completely by setting the system property
+ * <tt>liteloader.handlers.cache</tt> to <tt>false</tt>.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class HandlerListCache {
+	/**
+	 * Bump this whenever the generated code changes in a way which isn't
+	 * reflected in the bytes of the HandlerList, generator, template or
+	 * decorator classes
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Cached classes which haven't been used for this long are pruned on init
+	 */
+	private static final long MAX_AGE_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+	private static final String EXTENSION = ".class";
+
+	private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("liteloader.handlers.cache", "true"));
+
+	/**
+	 * Digests of raw class bytes, these don't change during a session so we
+	 * only compute them once per class
+	 */
+	private static final Map<String, String> classDigests = new HashMap<String, String>();
+
+	/**
+	 * Cache directory, null if the cache is not active
+	 */
+	private static File cacheDir;
+
+	private static int hits, misses;
+
+	private HandlerListCache() {
+	}
+
+	/**
+	 * Activate the cache using the specified directory
+	 *
+	 * @param dir Directory to store cached classes in
+	 */
+	public static synchronized void init(File dir) {
+		if (!HandlerListCache.ENABLED || dir == null) {
+			return;
+		}
+
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			LiteLoaderLogger.warning("Could not create handler list cache directory %s, baked handlers will not be cached", dir);
+			return;
+		}
+
+		HandlerListCache.cacheDir = dir;
+		HandlerListCache.prune(System.currentTimeMillis() - HandlerListCache.MAX_AGE_MILLIS);
+	}
+
+	/**
+	 * Get whether the cache is active
+	 */
+	public static synchronized boolean isActive() {
+		return HandlerListCache.cacheDir != null;
+	}
+
+	/**
+	 * Get the number of handler lists defined from the cache this session
+	 */
+	public static synchronized int getHits() {
+		return HandlerListCache.hits;
+	}
+
+	/**
+	 * Get the number of handler lists which had to be generated this session
+	 */
+	public static synchronized int getMisses() {
+		return HandlerListCache.misses;
+	}
+
+	/**
+	 * Compute the cache key for a handler list with the specified parameters,
+	 * returns null if the cache is not active or the list cannot be cached
+	 * (for example because the decorator does not support caching).
+	 */
+	static synchronized String getKey(Class<?> type, ReturnLogicOp logicOp, IHandlerListDecorator<?> decorator, int size, boolean slotted,
+		Obf template) {
+		if (HandlerListCache.cacheDir == null) {
+			return null;
+		}
+
+		String decoratorKey = "";
+		if (decorator != null) {
+			String key = decorator.getCacheKey();
+			if (key == null) {
+				return null;
+			}
+			decoratorKey = decorator.getClass().getName() + ":" + key;
+		}
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			HandlerListCache.update(digest, String.valueOf(HandlerListCache.FORMAT_VERSION));
+			HandlerListCache.update(digest, logicOp.name());
+			HandlerListCache.update(digest, String.valueOf(size));
+			HandlerListCache.update(digest, String.valueOf(slotted));
+			HandlerListCache.update(digest, decoratorKey);
+
+			if (!HandlerListCache.updateClass(digest, Obf.HandlerList.name) || !HandlerListCache.updateClass(digest, Obf.HandlerListClassLoader.name)
+				|| !HandlerListCache.updateClass(digest, template.name) || !HandlerListCache.updateInterface(digest, type)) {
+				return null;
+			}
+
+			// Decorators emit code into the generated class, so their code is part of the key
+			if (decorator != null && !HandlerListCache.updateClass(digest, decorator.getClass().getName())) {
+				return null;
+			}
+
+			for (IClassTransformer transformer : TransformerDelegate.getTransformers()) {
+				HandlerListCache.update(digest, transformer.getClass().getName());
+			}
+
+			return HandlerListCache.toHex(digest.digest());
+		} catch (NoSuchAlgorithmException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Read cached bytecode for the specified key, returns null if no cached
+	 * class exists
+	 */
+	static synchronized byte[] load(String key) {
+		File file = HandlerListCache.getFile(key);
+		if (file == null || !file.isFile()) {
+			HandlerListCache.misses++;
+			return null;
+		}
+
+		try {
+			byte[] bytes = FileUtils.readFileToByteArray(file);
+			file.setLastModified(System.currentTimeMillis());
+			HandlerListCache.hits++;
+			return bytes;
+		} catch (IOException ex) {
+			LiteLoaderLogger.debug(ex, "Error reading cached handler list %s", file.getName());
+			HandlerListCache.misses++;
+			return null;
+		}
+	}
+
+	/**
+	 * Store generated bytecode under the specified key
+	 */
+	static synchronized void store(String key, byte[] bytes) {
+		File file = HandlerListCache.getFile(key);
+		if (file == null) {
+			return;
+		}
+
+		File tempFile = new File(file.getParentFile(), key + ".tmp");
+		try {
+			FileUtils.writeByteArrayToFile(tempFile, bytes);
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			LiteLoaderLogger.debug(ex, "Error writing cached handler list %s", file.getName());
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Remove a cache entry, called when cached bytes fail to define
+	 */
+	static synchronized void evict(String key) {
+		File file = HandlerListCache.getFile(key);
+		if (file != null && file.isFile()) {
+			LiteLoaderLogger.warning("Evicting invalid cached handler list %s", file.getName());
+			file.delete();
+		}
+	}
+
+	private static File getFile(String key) {
+		if (key == null || HandlerListCache.cacheDir == null) {
+			return null;
+		}
+
+		return new File(HandlerListCache.cacheDir, key + HandlerListCache.EXTENSION);
+	}
+
+	private static void prune(long minTimestamp) {
+		File[] files = HandlerListCache.cacheDir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		int pruned = 0;
+		for (File file : files) {
+			if (file.isFile() && file.lastModified() < minTimestamp) {
+				if (file.delete()) {
+					pruned++;
+				}
+			}
+		}
+
+		if (pruned > 0) {
+			LiteLoaderLogger.debug("Pruned %d stale entries from the handler list cache", pruned);
+		}
+	}
+
+	private static boolean updateInterface(MessageDigest digest, Class<?> type) {
+		if (!HandlerListCache.updateClass(digest, type.getName())) {
+			return false;
+		}
+
+		for (Class<?> parent : type.getInterfaces()) {
+			if (!HandlerListCache.updateInterface(digest, parent)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean updateClass(MessageDigest digest, String className) {
+		String classDigest = HandlerListCache.classDigests.get(className);
+		if (classDigest == null) {
+			try {
+				byte[] bytes = Launch.classLoader.getClassBytes(className);
+				if (bytes == null) {
+					return false;
+				}
+				classDigest = HandlerListCache.toHex(MessageDigest.getInstance("SHA-1").digest(bytes));
+				HandlerListCache.classDigests.put(className, classDigest);
+			} catch (IOException ex) {
+				return false;
+			} catch (NoSuchAlgorithmException ex) {
+				return false;
+			}
+		}
+
+		HandlerListCache.update(digest, className);
+		HandlerListCache.update(digest, classDigest);
+		return true;
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
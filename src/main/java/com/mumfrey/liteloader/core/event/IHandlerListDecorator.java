@@ -62,4 +62,14 @@ public interface IHandlerListDecorator<T> {
 	 * Called at the end of populateInterfaceMethod
 	 */
 	public abstract void populateInterfaceMethod(ClassNode classNode, MethodNode method);
+
+	/**
+	 * Get a string which uniquely identifies the bytecode this decorator will
+	 * generate for the list passed to {@link #prepare}, used to key the
+	 * {@link HandlerListCache}. Return null (the default) if the generated
+	 * class should not be cached.
+	 */
+	public default String getCacheKey() {
+		return null;
+	}
 }
@@ -0,0 +1,303 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.event;
+
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of invocation counts and sampled latency histograms for listeners
+ * invoked via a {@link TimingHandlerList}. Timings are keyed by listener
+ * interface, listener name and interface method and persist across re-bakes
+ * of the handler list, so adding or removing other listeners does not reset
+ * the statistics.
+ *
+ * <p>Every invocation is counted but only a fraction of invocations are
+ * timed, the sample interval is controlled by the system property
+ * <tt>liteloader.timings.sample</tt> which defaults to 16 (on average one call
+ * in every 16 is timed). Latencies are recorded into power-of-two
+ * nanosecond buckets so recording a sample never allocates.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class ListenerTimings {
+	/**
+	 * Number of histogram buckets, bucket n holds samples in the range
+	 * [2^n, 2^(n+1)) nanoseconds which covers up to around 18 minutes.
+	 */
+	static final int BUCKETS = 40;
+
+	/**
+	 * Sample interval, always a power of two
+	 */
+	private static final int SAMPLE_INTERVAL = ListenerTimings.toPowerOfTwo(Integer.getInteger("liteloader.timings.sample", 16));
+
+	/**
+	 * Mask applied to the sampling random to decide whether to sample
+	 */
+	static final int SAMPLE_MASK = ListenerTimings.SAMPLE_INTERVAL - 1;
+
+	private static final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<String, Timing>();
+
+	/**
+	 * Invocation statistics for a single interface method on a single listener
+	 */
+	public static final class Timing {
+		private final String interfaceName;
+
+		private final String listenerName;
+
+		private final String methodName;
+
+		private final LongAdder invocations = new LongAdder();
+
+		private final LongAdder samples = new LongAdder();
+
+		private final LongAdder sampledNanos = new LongAdder();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private final AtomicLongArray histogram = new AtomicLongArray(ListenerTimings.BUCKETS);
+
+		Timing(String interfaceName, String listenerName, String methodName) {
+			this.interfaceName = interfaceName;
+			this.listenerName = listenerName;
+			this.methodName = methodName;
+		}
+
+		void count() {
+			this.invocations.increment();
+		}
+
+		void record(long nanos) {
+			if (nanos < 1) {
+				nanos = 1;
+			}
+
+			this.samples.increment();
+			this.sampledNanos.add(nanos);
+			this.histogram.incrementAndGet(Math.min(63 - Long.numberOfLeadingZeros(nanos), ListenerTimings.BUCKETS - 1));
+
+			long max = this.maxNanos.get();
+			while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+				max = this.maxNanos.get();
+			}
+		}
+
+		void reset() {
+			this.invocations.reset();
+			this.samples.reset();
+			this.sampledNanos.reset();
+			this.maxNanos.set(0);
+			for (int bucket = 0; bucket < ListenerTimings.BUCKETS; bucket++) {
+				this.histogram.set(bucket, 0);
+			}
+		}
+
+		/**
+		 * Get the simple name of the listener interface
+		 */
+		public String getInterfaceName() {
+			return this.interfaceName;
+		}
+
+		/**
+		 * Get the listener (mod) name
+		 */
+		public String getListenerName() {
+			return this.listenerName;
+		}
+
+		/**
+		 * Get the name of the interface method
+		 */
+		public String getMethodName() {
+			return this.methodName;
+		}
+
+		/**
+		 * Get the total number of invocations
+		 */
+		public long getInvocations() {
+			return this.invocations.sum();
+		}
+
+		/**
+		 * Get the number of invocations which were timed
+		 */
+		public long getSamples() {
+			return this.samples.sum();
+		}
+
+		/**
+		 * Get the mean time of the sampled invocations in nanoseconds
+		 */
+		public long getMeanNanos() {
+			long samples = this.samples.sum();
+			return samples > 0 ? this.sampledNanos.sum() / samples : 0;
+		}
+
+		/**
+		 * Get the longest sampled invocation in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return this.maxNanos.get();
+		}
+
+		/**
+		 * Estimate the total time spent in this method in nanoseconds by
+		 * scaling the sampled mean by the invocation count
+		 */
+		public long getEstimatedTotalNanos() {
+			return this.getMeanNanos() * this.getInvocations();
+		}
+
+		/**
+		 * Get the upper bound (in nanoseconds) of the histogram bucket which
+		 * contains the specified percentile of samples
+		 *
+		 * @param percentile percentile to query, 0 to 100
+		 */
+		public long getPercentileNanos(double percentile) {
+			long total = 0;
+			long[] counts = new long[ListenerTimings.BUCKETS];
+			for (int bucket = 0; bucket < ListenerTimings.BUCKETS; bucket++) {
+				counts[bucket] = this.histogram.get(bucket);
+				total += counts[bucket];
+			}
+
+			if (total == 0) {
+				return 0;
+			}
+
+			long threshold = (long) Math.ceil(total * Math.max(0.0, Math.min(100.0, percentile)) / 100.0);
+			long seen = 0;
+			for (int bucket = 0; bucket < ListenerTimings.BUCKETS; bucket++) {
+				seen += counts[bucket];
+				if (seen >= threshold && counts[bucket] > 0) {
+					return Math.min((1L << (bucket + 1)) - 1, this.maxNanos.get());
+				}
+			}
+
+			return this.maxNanos.get();
+		}
+
+		/**
+		 * Get a copy of the raw histogram, element n contains the number of
+		 * samples in the range [2^n, 2^(n+1)) nanoseconds.
+		 */
+		public long[] getHistogram() {
+			long[] counts = new long[ListenerTimings.BUCKETS];
+			for (int bucket = 0; bucket < ListenerTimings.BUCKETS; bucket++) {
+				counts[bucket] = this.histogram.get(bucket);
+			}
+			return counts;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s.%s [%s]", this.interfaceName, this.methodName, this.listenerName);
+		}
+	}
+
+	private ListenerTimings() {
+	}
+
+	/**
+	 * Get (or create) the timing for the specified listener method
+	 */
+	static Timing get(Class<?> type, String listenerName, String methodName) {
+		String key = type.getName() + "|" + listenerName + "|" + methodName;
+		Timing timing = ListenerTimings.timings.get(key);
+		if (timing == null) {
+			timing = new Timing(type.getSimpleName(), listenerName, methodName);
+			Timing existing = ListenerTimings.timings.putIfAbsent(key, timing);
+			if (existing != null) {
+				timing = existing;
+			}
+		}
+		return timing;
+	}
+
+	/**
+	 * Get the sample interval, on average one in this many invocations will
+	 * be timed
+	 */
+	public static int getSampleInterval() {
+		return ListenerTimings.SAMPLE_INTERVAL;
+	}
+
+	/**
+	 * Get all recorded timings, sorted by estimated total time descending
+	 */
+	public static List<Timing> getTimings() {
+		List<Timing> timings = new ArrayList<Timing>(ListenerTimings.timings.values());
+		Collections.sort(timings, new Comparator<Timing>() {
+			@Override
+			public int compare(Timing a, Timing b) {
+				return Long.compare(b.getEstimatedTotalNanos(), a.getEstimatedTotalNanos());
+			}
+		});
+		return timings;
+	}
+
+	/**
+	 * Get all recorded timings for the specified listener (mod) name
+	 */
+	public static List<Timing> getTimings(String listenerName) {
+		List<Timing> timings = new ArrayList<Timing>();
+		for (Timing timing : ListenerTimings.getTimings()) {
+			if (timing.getListenerName().equals(listenerName)) {
+				timings.add(timing);
+			}
+		}
+		return timings;
+	}
+
+	/**
+	 * Reset all recorded statistics
+	 */
+	public static void reset() {
+		for (Timing timing : ListenerTimings.timings.values()) {
+			timing.reset();
+		}
+	}
+
+	/**
+	 * Write a summary of the recorded timings to the log
+	 *
+	 * @param limit maximum number of entries to write
+	 */
+	public static void dump(int limit) {
+		List<Timing> timings = ListenerTimings.getTimings();
+		LiteLoaderLogger.info("Listener timings (1 in %d invocations sampled), top %d of %d:", ListenerTimings.SAMPLE_INTERVAL,
+			Math.min(limit, timings.size()), timings.size());
+
+		int count = 0;
+		for (Timing timing : timings) {
+			if (count++ >= limit) {
+				break;
+			}
+
+			LiteLoaderLogger.info("  %-60s calls=%-10d mean=%8.3fms p99<=%8.3fms max=%8.3fms total~%10.1fms", timing, timing.getInvocations(),
+				timing.getMeanNanos() / 1000000.0, timing.getPercentileNanos(99) / 1000000.0, timing.getMaxNanos() / 1000000.0,
+				timing.getEstimatedTotalNanos() / 1000000.0);
+		}
+	}
+
+	private static int toPowerOfTwo(int value) {
+		return value < 2 ? 1 : Integer.highestOneBit(value - 1) << 1;
+	}
+}
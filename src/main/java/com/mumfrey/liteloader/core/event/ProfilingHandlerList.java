@@ -106,6 +106,16 @@ public class ProfilingHandlerList<T extends Listener> extends HandlerList<T> {
 			}
 		}
 
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #getCacheKey()
+		 */
+		@Override
+		public String getCacheKey() {
+			// Section names are baked into the generated class as constants
+			return String.join("|", this.names);
+		}
+
 		/* (non-Javadoc)
 		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
 		 *      #createInstance(java.lang.Class)
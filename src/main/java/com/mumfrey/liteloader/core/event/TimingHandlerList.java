@@ -0,0 +1,302 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.core.event;
+
+import com.mumfrey.liteloader.api.Listener;
+import com.mumfrey.liteloader.core.event.ListenerTimings.Timing;
+import com.mumfrey.liteloader.core.runtime.Obf;
+import com.mumfrey.liteloader.transformers.ByteCodeUtilities;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A HandlerList which counts every invocation of every listener and samples
+ * invocation latency into {@link ListenerTimings}. Unlike
+ * {@link ProfilingHandlerList} this has no dependency on the game profiler so
+ * it can be used for any list at any time.
+ *
+ * @param <T>
+ * @author Adam Mummery-Smith
+ */
+public class TimingHandlerList<T extends Listener> extends HandlerList<T> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param type
+	 */
+	public TimingHandlerList(Class<T> type) {
+		super(type);
+	}
+
+	/**
+	 * @param type
+	 * @param logicOp
+	 */
+	public TimingHandlerList(Class<T> type, ReturnLogicOp logicOp) {
+		super(type, logicOp);
+	}
+
+	/**
+	 * @param type
+	 * @param logicOp
+	 * @param sorted
+	 */
+	public TimingHandlerList(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+		super(type, logicOp, sorted);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.mumfrey.liteloader.core.event.HandlerList#getDecorator()
+	 */
+	@Override
+	protected IHandlerListDecorator<T> getDecorator() {
+		return new TimingHandlerListDecorator<T>(this.getType());
+	}
+
+	/**
+	 * Concurrent list which bakes snapshots using a TimingHandlerList
+	 *
+	 * @param <T>
+	 */
+	public static class Concurrent<T extends Listener> extends ConcurrentHandlerList<T> {
+		public Concurrent(Class<T> type) {
+			super(type);
+		}
+
+		public Concurrent(Class<T> type, ReturnLogicOp logicOp) {
+			super(type, logicOp);
+		}
+
+		public Concurrent(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+			super(type, logicOp, sorted);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.ConcurrentHandlerList
+		 *      #createBaker(java.lang.Class,
+		 *      com.mumfrey.liteloader.core.event.HandlerList.ReturnLogicOp,
+		 *      boolean)
+		 */
+		@Override
+		protected HandlerList<T> createBaker(Class<T> type, ReturnLogicOp logicOp, boolean sorted) {
+			return new TimingHandlerList<T>(type, logicOp, sorted);
+		}
+	}
+
+	/**
+	 * Decorator which wraps each invocation with calls to begin() and end()
+	 * on the template class. Each (handler, method) pair is assigned a slot in
+	 * the timings array, slots are derived from the interface methods sorted
+	 * by signature so that the layout is independent of the order in which
+	 * the methods are generated, which keeps the generated class cacheable.
+	 */
+	static class TimingHandlerListDecorator<T extends Listener> implements IHandlerListDecorator<T> {
+		private final Class<T> type;
+
+		private final List<String> methods = new ArrayList<String>();
+
+		private final List<String> names = new ArrayList<String>();
+
+		TimingHandlerListDecorator(Class<T> type) {
+			this.type = type;
+
+			for (Method method : type.getMethods()) {
+				if (!Modifier.isStatic(method.getModifiers())) {
+					this.methods.add(method.getName() + Type.getMethodDescriptor(method));
+				}
+			}
+
+			Collections.sort(this.methods);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #getTemplate()
+		 */
+		@Override
+		public Obf getTemplate() {
+			return Obf.BakedTimingHandlerList;
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #prepare(java.util.List)
+		 */
+		@Override
+		public void prepare(List<T> sortedList) {
+			this.names.clear();
+
+			for (Listener l : sortedList) {
+				String name = l.getName();
+				this.names.add(name != null ? name : l.getClass().getSimpleName());
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #getCacheKey()
+		 */
+		@Override
+		public String getCacheKey() {
+			// Slot numbers depend only on the handler count and the interface
+			return "";
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #createInstance(java.lang.Class)
+		 */
+		@Override
+		public BakedHandlerList<T> createInstance(Class<BakedHandlerList<T>> handlerClass) throws Exception {
+			Timing[] timings = new Timing[this.names.size() * this.methods.size()];
+			for (int handlerIndex = 0; handlerIndex < this.names.size(); handlerIndex++) {
+				for (int methodIndex = 0; methodIndex < this.methods.size(); methodIndex++) {
+					String method = this.methods.get(methodIndex);
+					timings[this.getSlot(handlerIndex, methodIndex)] = ListenerTimings.get(this.type, this.names.get(handlerIndex),
+						method.substring(0, method.indexOf('(')));
+				}
+			}
+
+			Constructor<BakedHandlerList<T>> ctor = handlerClass.getDeclaredConstructor(Timing[].class);
+			ctor.setAccessible(true);
+			return ctor.newInstance((Object) timings);
+		}
+
+		private int getSlot(int handlerIndex, int methodIndex) {
+			return handlerIndex * this.methods.size() + methodIndex;
+		}
+
+		/**
+		 * Local variable used to hold the start time, placed after the
+		 * locals used by the boolean invocation chain
+		 */
+		private int getTimerLocal(Type[] args) {
+			return ByteCodeUtilities.getArgsSize(args) + 3;
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #populateClass(java.lang.String,
+		 *      org.objectweb.asm.tree.ClassNode)
+		 */
+		@Override
+		public void populateClass(String name, ClassNode classNode) {
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #processCtor(org.objectweb.asm.tree.ClassNode,
+		 *      org.objectweb.asm.tree.MethodNode)
+		 */
+		@Override
+		public void processCtor(ClassNode classNode, MethodNode method) {
+			method.instructions.clear();
+			method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+			method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 1));
+			method.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, Obf.BakedTimingHandlerList.ref, Obf.constructor.name,
+				method.desc, false));
+			method.instructions.add(new InsnNode(Opcodes.RETURN));
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #preInvokeInterfaceMethod(int, org.objectweb.asm.tree.ClassNode,
+		 *      org.objectweb.asm.tree.MethodNode, org.objectweb.asm.Type[])
+		 */
+		@Override
+		public void preInvokeInterfaceMethod(int handlerIndex, ClassNode classNode, MethodNode method, Type[] args) {
+			if (this.methods.indexOf(method.name + method.desc) < 0) {
+				return;
+			}
+
+			// long start = this.begin();
+			method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+			method.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, classNode.superName, "begin", "()J", false));
+			method.instructions.add(new VarInsnNode(Opcodes.LSTORE, this.getTimerLocal(args)));
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *     #postInvokeInterfaceMethod(int, org.objectweb.asm.tree.ClassNode,
+		 *     org.objectweb.asm.tree.MethodNode, org.objectweb.asm.Type[])
+		 */
+		@Override
+		public void postInvokeInterfaceMethod(int handlerIndex, ClassNode classNode, MethodNode method, Type[] args) {
+			int methodIndex = this.methods.indexOf(method.name + method.desc);
+			if (methodIndex < 0) {
+				return;
+			}
+
+			// this.end(slot, start);
+			int slot = this.getSlot(handlerIndex, methodIndex);
+			method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+			method.instructions.add(slot > Short.MAX_VALUE ? new LdcInsnNode(Integer.valueOf(slot)) : new IntInsnNode(Opcodes.SIPUSH, slot));
+			method.instructions.add(new VarInsnNode(Opcodes.LLOAD, this.getTimerLocal(args)));
+			method.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, classNode.superName, "end", "(IJ)V", false));
+		}
+
+		/* (non-Javadoc)
+		 * @see com.mumfrey.liteloader.core.event.IHandlerListDecorator
+		 *      #populateInterfaceMethod(org.objectweb.asm.tree.ClassNode,
+		 *      org.objectweb.asm.tree.MethodNode)
+		 */
+		@Override
+		public void populateInterfaceMethod(ClassNode classNode, MethodNode method) {
+		}
+	}
+
+	/**
+	 * Template class for the timing handler lists
+	 *
+	 * @param <T>
+	 * @author Adam Mummery-Smith
+	 */
+	public abstract static class BakedList<T> extends HandlerList.BakedHandlerList<T> {
+		private final Timing[] timings;
+
+		/**
+		 * State for the xorshift generator used to decide which invocations
+		 * to sample, randomised so that lists whose size is a multiple of the
+		 * sample interval don't always sample the same handler
+		 */
+		private int seed = (int) System.nanoTime() | 1;
+
+		public BakedList(Timing[] timings) {
+			this.timings = timings;
+		}
+
+		@Override
+		public abstract T get();
+
+		@Override
+		public abstract BakedHandlerList<T> populate(List<T> listeners);
+
+		protected long begin() {
+			int seed = this.seed;
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			this.seed = seed;
+			return (seed & ListenerTimings.SAMPLE_MASK) == 0 ? System.nanoTime() : 0L;
+		}
+
+		protected void end(int slot, long start) {
+			Timing timing = this.timings[slot];
+			timing.count();
+			if (start != 0L) {
+				timing.record(System.nanoTime() - start);
+			}
+		}
+	}
+}
@@ -21,8 +21,10 @@ public class Obf {
 	// -----------------------------------------------------------------------------------------
 	public static final Obf EventProxy = new Obf("com.mumfrey.liteloader.core.event.EventProxy");
 	public static final Obf HandlerList = new Obf("com.mumfrey.liteloader.core.event.HandlerList");
+	public static final Obf HandlerListClassLoader = new Obf("com.mumfrey.liteloader.core.event.HandlerList$HandlerListClassLoader");
 	public static final Obf BakedHandlerList = new Obf("com.mumfrey.liteloader.core.event.HandlerList$BakedHandlerList");
 	public static final Obf BakedProfilingHandlerList = new Obf("com.mumfrey.liteloader.core.event.ProfilingHandlerList$BakedList");
+	public static final Obf BakedTimingHandlerList = new Obf("com.mumfrey.liteloader.core.event.TimingHandlerList$BakedList");
 	public static final Obf PacketEvents = new Obf("com.mumfrey.liteloader.core.PacketEvents");
 	public static final Obf PacketEventsClient = new Obf("com.mumfrey.liteloader.client.PacketEventsClient");
 	public static final Obf GameProfile = new Obf("com.mojang.authlib.GameProfile");
@@ -165,6 +165,31 @@ public final class Packets extends Obf {
 
 	public static final Packets[] packets = Packets.toArray();
 
+	/**
+	 * Index of packet names (deobfuscated, short and obfuscated) to packet
+	 * indices. Where a name is shared by more than one packet the first packet
+	 * wins, which matches the order of a linear search of the packets array.
+	 */
+	private static final Map<String, Integer> nameIndex = Packets.createNameIndex();
+
+	/**
+	 * Lazily computed packet class to packet index mapping, allows runtime
+	 * code to resolve the index of a packet instance without any string work
+	 */
+	private static final ClassValue<Integer> classIndex = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			for (Class<?> packetClass = type; packetClass != null && packetClass != Object.class; packetClass = packetClass.getSuperclass()) {
+				int index = Packets.indexOf(packetClass.getName());
+				if (index > -1) {
+					return index;
+				}
+			}
+
+			return -1;
+		}
+	};
+
 	private static int nextPacketIndex;
 
 	private final String shortName;
@@ -207,14 +232,45 @@ public final class Packets extends Obf {
 		return this.context;
 	}
 
-	public static int indexOf(String packetClassName) {
+	private static Map<String, Integer> createNameIndex() {
+		Map<String, Integer> index = new HashMap<String, Integer>(Packets.packets.length * 6);
 		for (Packets packet : Packets.packets) {
-			if (packet.name.equals(packetClassName) || packet.shortName.equals(packetClassName) || packet.obf.equals(packetClassName)) {
-				return packet.index;
-			}
+			Packets.putIfAbsent(index, packet.name, packet.index);
+			Packets.putIfAbsent(index, packet.shortName, packet.index);
+			Packets.putIfAbsent(index, packet.obf, packet.index);
+		}
+		return index;
+	}
+
+	private static void putIfAbsent(Map<String, Integer> index, String key, int value) {
+		if (!index.containsKey(key)) {
+			index.put(key, value);
 		}
+	}
+
+	/**
+	 * Get the index of the packet with the specified deobfuscated, short or
+	 * obfuscated name
+	 *
+	 * @param packetClassName
+	 * @return packet index or -1 if no packet matches
+	 */
+	public static int indexOf(String packetClassName) {
+		Integer index = Packets.nameIndex.get(packetClassName);
+		return index != null ? index.intValue() : -1;
+	}
 
-		return -1;
+	/**
+	 * Get the index of the specified packet class, or of its nearest
+	 * superclass which is a known packet. The result is cached per class.
+	 * This is intended for resolving packet instances at runtime, use
+	 * {@link #indexOf(String)} where only an exact match is acceptable.
+	 *
+	 * @param packetClass
+	 * @return packet index or -1 if the class is not a known packet
+	 */
+	public static int indexOf(Class<?> packetClass) {
+		return Packets.classIndex.get(packetClass).intValue();
 	}
 
 	public static int count() {
@@ -0,0 +1,81 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.interfaces;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import com.mumfrey.liteloader.core.api.LoadableModFile;
+
+/**
+ * Everything discovery reads from a container file: the manifest attributes,
+ * the contents of the metadata entry and the names of the contained classes.
+ * Indexes are plain data so that they can be cached between launches and
+ * used to recreate a {@link LoadableFile} without opening the file.
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class ContainerIndex {
+	/**
+	 * Manifest attributes, null if the container has no manifest
+	 */
+	Map<String, String> manifest;
+
+	/**
+	 * Name of the entry which was read ahead
+	 */
+	String entryName;
+
+	/**
+	 * Contents of the entry, null if the entry does not exist
+	 */
+	String entry;
+
+	/**
+	 * Names of the contained classes, only read if the entry exists
+	 */
+	List<String> classNames;
+
+	private ContainerIndex() {
+	}
+
+	/**
+	 * Get the name of the entry which was read ahead
+	 */
+	public String getEntryName() {
+		return this.entryName;
+	}
+
+	/**
+	 * Get whether this index contains all of the data it should, used to
+	 * reject incomplete indexes read from a cache
+	 */
+	public boolean isComplete() {
+		return this.entryName != null && (this.entry == null || this.classNames != null);
+	}
+
+	/**
+	 * @param jar open jar to read from
+	 * @param manifest manifest attributes already read from the jar
+	 * @param entryName entry to read
+	 */
+	static ContainerIndex read(JarFile jar, Map<String, String> manifest, String entryName) throws IOException {
+		ContainerIndex index = new ContainerIndex();
+		index.manifest = manifest;
+		index.entryName = entryName;
+
+		ZipEntry entry = jar.getEntry(entryName);
+		if (entry != null) {
+			index.entry = LoadableModFile.zipEntryToString(jar, entry);
+			index.classNames = LoadableModFile.enumerateZipFile(jar);
+		}
+
+		return index;
+	}
+}
@@ -13,8 +13,10 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
@@ -50,6 +52,16 @@ public class LoadableFile extends File implements TweakContainer<File> {
 	public static final String MFATT_MIXIN_CONFIGS = ManifestAttributes.MIXINCONFIGS;
 	public static final String MFATT_INJECTION_STRATEGY = "TweakInjectionStrategy";
 
+	/**
+	 * Manifest attributes read from containers
+	 */
+	private static final String[] MANIFEST_ATTRIBUTES = {
+		LoadableFile.MFATT_MODTYPE, LoadableFile.MFATT_TWEAK_CLASS, LoadableFile.MFATT_CLASS_PATH, LoadableFile.MFATT_TWEAK_ORDER,
+		LoadableFile.MFATT_IMPLEMENTATION_TITLE, LoadableFile.MFATT_TWEAK_NAME, LoadableFile.MFATT_IMPLEMENTATION_VERSION,
+		LoadableFile.MFATT_TWEAK_VERSION, LoadableFile.MFATT_IMPLEMENTATION_VENDOR, LoadableFile.MFATT_TWEAK_AUTHOR,
+		LoadableFile.MFATT_MIXIN_CONFIGS, LoadableFile.MFATT_INJECTION_STRATEGY
+	};
+
 	private static final Pattern versionPattern = Pattern.compile("([0-9]+\\.)+[0-9]+([_A-Z0-9]+)?");
 
 	private static final long serialVersionUID = 1L;
@@ -104,6 +116,12 @@ public class LoadableFile extends File implements TweakContainer<File> {
 	 */
 	protected List<Throwable> mixinErrors = new ArrayList<Throwable>();
 
+	/**
+	 * Contents read ahead when the jar was opened to read metadata, null if
+	 * nothing was read ahead
+	 */
+	private ContainerIndex index;
+
 	/**
 	 * Create a new tweak container wrapping the specified file
 	 */
@@ -114,6 +132,39 @@ public class LoadableFile extends File implements TweakContainer<File> {
 		this.readJarMetaData();
 	}
 
+	/**
+	 * Create a new tweak container wrapping the specified file, the specified
+	 * entry and (if the entry exists) the names of the contained classes are
+	 * read whilst the jar is open to read the manifest so that the container
+	 * only has to be opened once during discovery.
+	 *
+	 * @param parent
+	 * @param prefetchEntryName entry to read ahead, eg. mod metadata
+	 */
+	public LoadableFile(File parent, String prefetchEntryName) {
+		super(parent.getAbsolutePath());
+		this.displayName = this.getName();
+		this.guessVersionFromName();
+		this.readJarMetaData(prefetchEntryName);
+	}
+
+	/**
+	 * Create a tweak container wrapping the specified file using contents
+	 * which were previously read from the file, the file is not opened.
+	 *
+	 * @param parent
+	 * @param index contents previously obtained from {@link #getIndex}
+	 */
+	public LoadableFile(File parent, ContainerIndex index) {
+		super(parent.getAbsolutePath());
+		this.displayName = this.getName();
+		this.guessVersionFromName();
+		if (index.manifest != null) {
+			this.applyManifestAttributes(index.manifest);
+		}
+		this.index = index;
+	}
+
 	/**
 	 * ctor for subclasses
 	 */
@@ -149,12 +200,22 @@ public class LoadableFile extends File implements TweakContainer<File> {
 		this.version = file.version;
 		this.author = file.author;
 		this.injectionStrategy = file.injectionStrategy;
+		this.index = file.index;
 	}
 
 	/**
 	 * Search for tweaks in this file
 	 */
 	protected void readJarMetaData() {
+		this.readJarMetaData(null);
+	}
+
+	/**
+	 * Search for tweaks in this file and read ahead the specified entry
+	 *
+	 * @param prefetchEntryName entry to read ahead or null
+	 */
+	private void readJarMetaData(String prefetchEntryName) {
 		JarFile jar = null;
 
 		if (this.isDirectory()) {
@@ -163,58 +224,15 @@ public class LoadableFile extends File implements TweakContainer<File> {
 
 		try {
 			jar = new JarFile(this);
+			Map<String, String> manifest = null;
 			if (jar.getManifest() != null) {
 				LiteLoaderLogger.info("Inspecting jar metadata in '%s'", this.getName());
-				Attributes mfAttributes = jar.getManifest().getMainAttributes();
-
-				String mfAttmodSystemList = mfAttributes.getValue(LoadableFile.MFATT_MODTYPE);
-				String mfAttTweakClass = mfAttributes.getValue(LoadableFile.MFATT_TWEAK_CLASS);
-				String mfAttClassPath = mfAttributes.getValue(LoadableFile.MFATT_CLASS_PATH);
-				String mfAttTweakOrder = mfAttributes.getValue(LoadableFile.MFATT_TWEAK_ORDER);
-				String mfAttDisplayName = mfAttributes.getValue(LoadableFile.MFATT_IMPLEMENTATION_TITLE);
-				String mfAttTweakName = mfAttributes.getValue(LoadableFile.MFATT_TWEAK_NAME);
-				String mfAttVersion = mfAttributes.getValue(LoadableFile.MFATT_IMPLEMENTATION_VERSION);
-				String mfAttTweakVersion = mfAttributes.getValue(LoadableFile.MFATT_TWEAK_VERSION);
-				String mfAttAuthor = mfAttributes.getValue(LoadableFile.MFATT_IMPLEMENTATION_VENDOR);
-				String mfAttTweakAuthor = mfAttributes.getValue(LoadableFile.MFATT_TWEAK_AUTHOR);
-				String mfAttMixinConfigs = mfAttributes.getValue(LoadableFile.MFATT_MIXIN_CONFIGS);
-				String mfAttInjectionStrategy = mfAttributes.getValue(LoadableFile.MFATT_INJECTION_STRATEGY);
-
-				if (mfAttmodSystemList != null) {
-					for (String modSystem : mfAttmodSystemList.split(",")) {
-						modSystem = modSystem.trim();
-						if (modSystem.length() > 0) {
-							this.modSystems.add(modSystem);
-						}
-					}
-				}
-
-				this.tweakClassName = mfAttTweakClass;
-				if (this.tweakClassName != null && mfAttClassPath != null) {
-					this.classPathEntries = mfAttClassPath.split(" ");
-				}
-
-				if (mfAttTweakOrder != null) {
-					Integer tweakOrder = Ints.tryParse(mfAttTweakOrder);
-					if (tweakOrder != null) {
-						this.tweakPriority = tweakOrder.intValue();
-					}
-				}
-
-				if (mfAttDisplayName != null) this.displayName = mfAttDisplayName;
-				if (mfAttTweakName != null) this.displayName = mfAttTweakName;
-				if (mfAttVersion != null) this.version = mfAttVersion;
-				if (mfAttTweakVersion != null) this.version = mfAttTweakVersion;
-				if (mfAttAuthor != null) this.author = mfAttAuthor;
-				if (mfAttTweakAuthor != null) this.author = mfAttTweakAuthor;
-
-				if (mfAttMixinConfigs != null) {
-					for (String config : mfAttMixinConfigs.split(",")) {
-						this.mixinConfigs.add(config);
-					}
-				}
+				manifest = LoadableFile.readManifestAttributes(jar.getManifest().getMainAttributes());
+				this.applyManifestAttributes(manifest);
+			}
 
-				this.injectionStrategy = InjectionStrategy.parseStrategy(mfAttInjectionStrategy, InjectionStrategy.TOP);
+			if (prefetchEntryName != null) {
+				this.index = ContainerIndex.read(jar, manifest, prefetchEntryName);
 			}
 		} catch (Exception ex) {
 			LiteLoaderLogger.warning("Could not parse jar metadata in '%s'", this);
@@ -226,6 +244,89 @@ public class LoadableFile extends File implements TweakContainer<File> {
 		}
 	}
 
+	private static Map<String, String> readManifestAttributes(Attributes mfAttributes) {
+		Map<String, String> manifest = new HashMap<String, String>();
+		for (String attribute : LoadableFile.MANIFEST_ATTRIBUTES) {
+			String value = mfAttributes.getValue(attribute);
+			if (value != null) {
+				manifest.put(attribute, value);
+			}
+		}
+		return manifest;
+	}
+
+	private void applyManifestAttributes(Map<String, String> manifest) {
+		String mfAttmodSystemList = manifest.get(LoadableFile.MFATT_MODTYPE);
+		String mfAttTweakClass = manifest.get(LoadableFile.MFATT_TWEAK_CLASS);
+		String mfAttClassPath = manifest.get(LoadableFile.MFATT_CLASS_PATH);
+		String mfAttTweakOrder = manifest.get(LoadableFile.MFATT_TWEAK_ORDER);
+		String mfAttDisplayName = manifest.get(LoadableFile.MFATT_IMPLEMENTATION_TITLE);
+		String mfAttTweakName = manifest.get(LoadableFile.MFATT_TWEAK_NAME);
+		String mfAttVersion = manifest.get(LoadableFile.MFATT_IMPLEMENTATION_VERSION);
+		String mfAttTweakVersion = manifest.get(LoadableFile.MFATT_TWEAK_VERSION);
+		String mfAttAuthor = manifest.get(LoadableFile.MFATT_IMPLEMENTATION_VENDOR);
+		String mfAttTweakAuthor = manifest.get(LoadableFile.MFATT_TWEAK_AUTHOR);
+		String mfAttMixinConfigs = manifest.get(LoadableFile.MFATT_MIXIN_CONFIGS);
+		String mfAttInjectionStrategy = manifest.get(LoadableFile.MFATT_INJECTION_STRATEGY);
+
+		if (mfAttmodSystemList != null) {
+			for (String modSystem : mfAttmodSystemList.split(",")) {
+				modSystem = modSystem.trim();
+				if (modSystem.length() > 0) {
+					this.modSystems.add(modSystem);
+				}
+			}
+		}
+
+		this.tweakClassName = mfAttTweakClass;
+		if (this.tweakClassName != null && mfAttClassPath != null) {
+			this.classPathEntries = mfAttClassPath.split(" ");
+		}
+
+		if (mfAttTweakOrder != null) {
+			Integer tweakOrder = Ints.tryParse(mfAttTweakOrder);
+			if (tweakOrder != null) {
+				this.tweakPriority = tweakOrder.intValue();
+			}
+		}
+
+		if (mfAttDisplayName != null) this.displayName = mfAttDisplayName;
+		if (mfAttTweakName != null) this.displayName = mfAttTweakName;
+		if (mfAttVersion != null) this.version = mfAttVersion;
+		if (mfAttTweakVersion != null) this.version = mfAttTweakVersion;
+		if (mfAttAuthor != null) this.author = mfAttAuthor;
+		if (mfAttTweakAuthor != null) this.author = mfAttTweakAuthor;
+
+		if (mfAttMixinConfigs != null) {
+			for (String config : mfAttMixinConfigs.split(",")) {
+				this.mixinConfigs.add(config);
+			}
+		}
+
+		this.injectionStrategy = InjectionStrategy.parseStrategy(mfAttInjectionStrategy, InjectionStrategy.TOP);
+	}
+
+	/**
+	 * Get the contents which were read ahead from this container, these can
+	 * be stored and passed to {@link #LoadableFile(File, ContainerIndex)} to
+	 * recreate this container without opening the file again.
+	 *
+	 * @return container contents or null if nothing was read ahead
+	 */
+	public ContainerIndex getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Get the names of the classes in this container if they were read ahead
+	 * with the metadata
+	 *
+	 * @return class names or null if the class names were not prefetched
+	 */
+	protected List<String> getPrefetchedClassNames() {
+		return this.index != null ? this.index.classNames : null;
+	}
+
 	public Set<String> getModSystems() {
 		return Collections.unmodifiableSet(this.modSystems);
 	}
@@ -425,6 +526,10 @@ public class LoadableFile extends File implements TweakContainer<File> {
 	 * @param charset
 	 */
 	public String getFileContents(String name, Charset charset) {
+		if (this.index != null && name.equals(this.index.entryName)) {
+			return this.index.entry;
+		}
+
 		return LoadableFile.getFileContents(this, name, charset);
 	}
 
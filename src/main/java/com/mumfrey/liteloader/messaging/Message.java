@@ -7,6 +7,7 @@ package com.mumfrey.liteloader.messaging;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 import com.google.common.collect.ImmutableMap;
@@ -25,7 +26,21 @@ public final class Message {
 
 	private final String channel, replyChannel;
 	private final Messenger sender;
-	private final Map<String, ?> payload;
+
+	/**
+	 * Value for single-value messages, these messages only build a payload
+	 * map if somebody asks for it
+	 */
+	private final Object value;
+	private final boolean singleValue;
+
+	private Map<String, ?> payload;
+
+	/**
+	 * Future to complete when replying to a request, null if this message is
+	 * not a request
+	 */
+	private final CompletableFuture<Object> response;
 
 	Message(String channel, Object value, Messenger sender) {
 		this(channel, value, sender, null);
@@ -35,9 +50,24 @@ public final class Message {
 		Message.validateChannel(channel);
 
 		this.channel = channel;
-		this.payload = ImmutableMap.<String, Object>of("value", value);
+		this.value = value;
+		this.singleValue = true;
+		this.sender = sender;
+		this.replyChannel = replyChannel;
+		this.response = null;
+	}
+
+	Message(MessageChannel channel, Object value, Messenger sender, String replyChannel) {
+		this(channel, value, sender, replyChannel, null);
+	}
+
+	Message(MessageChannel channel, Object value, Messenger sender, String replyChannel, CompletableFuture<Object> response) {
+		this.channel = channel.getName();
+		this.value = value;
+		this.singleValue = true;
 		this.sender = sender;
 		this.replyChannel = replyChannel;
+		this.response = response;
 	}
 
 	Message(String channel, Map<String, ?> payload, Messenger sender) {
@@ -49,8 +79,11 @@ public final class Message {
 
 		this.channel = channel;
 		this.payload = payload != null ? ImmutableMap.copyOf(payload) : ImmutableMap.<String, String>of();
+		this.value = null;
+		this.singleValue = false;
 		this.sender = sender;
 		this.replyChannel = replyChannel;
+		this.response = null;
 	}
 
 	/**
@@ -75,6 +108,36 @@ public final class Message {
 		return this.replyChannel;
 	}
 
+	/**
+	 * Get whether this message is a request sent with
+	 * {@link MessageBus#request} which expects a call to {@link #reply}
+	 */
+	public boolean isRequest() {
+		return this.response != null;
+	}
+
+	/**
+	 * Reply to a request, only the first reply to a request is used
+	 *
+	 * @param value reply value
+	 * @return true if this reply completed the request, false if this
+	 *      message is not a request or the request was already completed or
+	 *      timed out
+	 */
+	public boolean reply(Object value) {
+		return this.response != null && this.response.complete(value);
+	}
+
+	/**
+	 * Fail a request with the specified exception
+	 *
+	 * @param th
+	 * @return true if this call completed the request
+	 */
+	public boolean replyExceptionally(Throwable th) {
+		return this.response != null && this.response.completeExceptionally(th);
+	}
+
 	/**
 	 * Get the message sender (if any) for this message - may return null
 	 */
@@ -86,6 +149,9 @@ public final class Message {
 	 * Get the message payload
 	 */
 	public Map<String, ?> getPayload() {
+		if (this.payload == null) {
+			this.payload = this.value != null ? ImmutableMap.<String, Object>of("value", this.value) : ImmutableMap.<String, Object>of();
+		}
 		return this.payload;
 	}
 
@@ -114,12 +180,15 @@ public final class Message {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T get(String key) {
+		if (this.singleValue) {
+			return "value".equals(key) ? (T) this.value : null;
+		}
 		return (T) this.payload.get(key);
 	}
 
 	@SuppressWarnings("unchecked")
 	public <T> T get(String key, T defaultValue) {
-		Object value = this.payload.get(key);
+		Object value = this.get(key);
 		if (value != null) {
 			return (T) value;
 		}
@@ -130,10 +199,25 @@ public final class Message {
 	 * Gets the payload with the key "value", which is used with messages
 	 * constructed using a object-only payload.
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getValue() {
+		if (this.singleValue) {
+			return (T) this.value;
+		}
 		return this.get("value");
 	}
 
+	/**
+	 * Gets the payload with the key "value" if it is of the specified type
+	 *
+	 * @param type expected value type
+	 * @return the value or null if the value is not of the specified type
+	 */
+	public <T> T getValue(Class<T> type) {
+		Object value = this.getValue();
+		return type.isInstance(value) ? type.cast(value) : null;
+	}
+
 	public static void validateChannel(String channel) throws IllegalArgumentException {
 		if (channel == null) {
 			throw new IllegalArgumentException("Channel name cannot be null");
@@ -5,17 +5,28 @@
  */
 package com.mumfrey.liteloader.messaging;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 import com.mumfrey.liteloader.api.InterfaceProvider;
 import com.mumfrey.liteloader.api.Listener;
 import com.mumfrey.liteloader.core.InterfaceRegistrationDelegate;
-import com.mumfrey.liteloader.core.event.HandlerList;
-import com.mumfrey.liteloader.interfaces.FastIterable;
+import com.mumfrey.liteloader.messaging.MessageChannel.Delivery;
 import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
 
 /**
@@ -31,16 +42,34 @@ public final class MessageBus implements InterfaceProvider {
 	private static MessageBus instance;
 
 	/**
-	 * Messengers subscribed to each channel
+	 * Channel handles, each handle holds the messengers subscribed to the
+	 * channel
 	 */
-	private final Map<String, FastIterable<Messenger>> messengers = new HashMap<String, FastIterable<Messenger>>();
+	private final ConcurrentMap<String, MessageChannel> channels = new ConcurrentHashMap<String, MessageChannel>();
 
 	/**
-	 * Pending messages dispatched pre-startup
+	 * Channels which have an async message queue
 	 */
-	private final Deque<Message> messageQueue = new LinkedList<Message>();
+	private final List<MessageChannel> queuedChannels = new CopyOnWriteArrayList<MessageChannel>();
 
-	private boolean enableMessaging = false;
+	/**
+	 * Pending messages dispatched pre-startup, replayed in the order they
+	 * were sent
+	 */
+	private final Deque<Message> messageQueue = new ArrayDeque<Message>();
+
+	private volatile boolean enableMessaging = false;
+
+	/**
+	 * Worker thread for channels using {@link Delivery#WORKER}, created on
+	 * first use
+	 */
+	private ExecutorService worker;
+
+	/**
+	 * True while a drain task is scheduled on the worker thread
+	 */
+	private final AtomicBoolean workerScheduled = new AtomicBoolean();
 
 	private MessageBus() {
 	}
@@ -85,12 +114,43 @@ public final class MessageBus implements InterfaceProvider {
 	 *
 	 */
 	public void onStartupComplete() {
-		this.enableMessaging = true;
+		Message[] queued;
+		synchronized (this.messageQueue) {
+			this.enableMessaging = true;
+			queued = this.messageQueue.toArray(new Message[this.messageQueue.size()]);
+			this.messageQueue.clear();
+		}
 
-		while (this.messageQueue.size() > 0) {
-			Message msg = this.messageQueue.pop();
+		for (Message msg : queued) {
 			this.dispatchMessage(msg);
 		}
+
+		this.scheduleWorker();
+	}
+
+	/**
+	 * Deliver queued messages for channels which are delivered on the
+	 * specified tick, called by the loader on the client and server ticks
+	 *
+	 * @param tick
+	 */
+	public void onTick(Delivery tick) {
+		if (!this.enableMessaging) {
+			return;
+		}
+
+		for (MessageChannel channel : this.queuedChannels) {
+			channel.drain(tick);
+		}
+	}
+
+	/**
+	 * Called when a channel creates its async queue
+	 *
+	 * @param channel
+	 */
+	void onChannelQueueCreated(MessageChannel channel) {
+		this.queuedChannels.add(channel);
 	}
 
 	public void registerMessenger(Messenger messenger) {
@@ -104,7 +164,7 @@ public final class MessageBus implements InterfaceProvider {
 		for (String channel : messageChannels) {
 			if (channel != null && Message.isValidChannel(channel)) {
 				LiteLoaderLogger.info("Listener %s is registering MessageBus channel %s", messenger.getName(), channel);
-				this.getMessengerList(channel).add(messenger);
+				this.getChannelHandle(channel).addMessenger(messenger);
 			} else {
 				LiteLoaderLogger.warning("Listener %s tried to register invalid MessageBus channel %s", messenger.getName(), channel);
 			}
@@ -120,7 +180,117 @@ public final class MessageBus implements InterfaceProvider {
 			return;
 		}
 
-		this.messageQueue.push(message);
+		synchronized (this.messageQueue) {
+			if (!this.enableMessaging) {
+				this.messageQueue.addLast(message);
+				return;
+			}
+		}
+
+		this.dispatchMessage(message);
+	}
+
+	/**
+	 * @param channel
+	 * @param message
+	 */
+	private boolean postMessage(MessageChannel channel, Message message) {
+		if (!channel.offer(message)) {
+			return false;
+		}
+
+		if (channel.getDelivery() == Delivery.WORKER) {
+			this.scheduleWorker();
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param channel
+	 * @param value
+	 * @param sender
+	 * @param timeout
+	 * @param unit
+	 */
+	private CompletableFuture<Object> requestMessage(MessageChannel channel, Object value, Messenger sender, long timeout, TimeUnit unit) {
+		CompletableFuture<Object> response = new CompletableFuture<Object>();
+		if (!channel.hasMessengers()) {
+			response.completeExceptionally(new IllegalStateException("No messengers are registered on MessageBus channel " + channel));
+			return response;
+		}
+
+		// The timeout covers waiting for a permit as well as the reply
+		long start = System.nanoTime();
+		final Semaphore permits;
+		try {
+			permits = channel.acquireRequestPermit(timeout, unit);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			response.completeExceptionally(ex);
+			return response;
+		} catch (IllegalStateException ex) {
+			response.completeExceptionally(ex);
+			return response;
+		}
+
+		if (permits != null) {
+			response.whenComplete(new BiConsumer<Object, Throwable>() {
+				@Override
+				public void accept(Object result, Throwable th) {
+					permits.release();
+				}
+			});
+		}
+
+		long remaining = unit.toNanos(timeout) - (System.nanoTime() - start);
+		if (remaining <= 0L) {
+			response.completeExceptionally(new TimeoutException("Timed out waiting for a request permit on MessageBus channel " + channel));
+			return response;
+		}
+
+		response.orTimeout(remaining, TimeUnit.NANOSECONDS);
+
+		if (!this.postMessage(channel, new Message(channel, value, sender, null, response))) {
+			response.completeExceptionally(new RejectedExecutionException("Message queue for MessageBus channel " + channel + " is full"));
+		}
+
+		return response;
+	}
+
+	private void scheduleWorker() {
+		if (!this.enableMessaging || !this.workerScheduled.compareAndSet(false, true)) {
+			return;
+		}
+
+		this.getWorker().execute(new Runnable() {
+			@Override
+			public void run() {
+				MessageBus.this.workerScheduled.set(false);
+				int delivered;
+				do {
+					delivered = 0;
+					for (MessageChannel channel : MessageBus.this.queuedChannels) {
+						delivered += channel.drain(Delivery.WORKER);
+					}
+				} while (delivered > 0);
+			}
+		});
+	}
+
+	private synchronized ExecutorService getWorker() {
+		if (this.worker == null) {
+			this.worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "LiteLoader MessageBus Worker");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		return this.worker;
 	}
 
 	/**
@@ -128,9 +298,9 @@ public final class MessageBus implements InterfaceProvider {
 	 */
 	private void dispatchMessage(Message message) {
 		try {
-			FastIterable<Messenger> messengerList = this.messengers.get(message.getChannel());
-			if (messengerList != null) {
-				messengerList.all().receiveMessage(message);
+			MessageChannel channel = this.channels.get(message.getChannel());
+			if (channel != null) {
+				channel.dispatch(message);
 			}
 		} catch (StackOverflowError err) {
 			// A listener tried to reply on the same channel and ended up calling itself
@@ -140,18 +310,136 @@ public final class MessageBus implements InterfaceProvider {
 	}
 
 	/**
-	 * Get messengers for the specified channel
+	 * Get the handle for the specified channel, creating it if necessary
+	 *
+	 * @param channel
+	 */
+	private MessageChannel getChannelHandle(String channel) {
+		MessageChannel handle = this.channels.get(channel);
+		if (handle == null) {
+			handle = new MessageChannel(channel);
+			MessageChannel existing = this.channels.putIfAbsent(channel, handle);
+			if (existing != null) {
+				handle = existing;
+			}
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Get the handle for the specified channel. The channel name is validated
+	 * once here, messages sent or posted using the handle skip validation and
+	 * channel lookup. Mods sending frequent messages should obtain a handle
+	 * once and keep it.
 	 *
 	 * @param channel
+	 * @throws IllegalArgumentException if the channel name is not valid
 	 */
-	private FastIterable<Messenger> getMessengerList(String channel) {
-		FastIterable<Messenger> messengerList = this.messengers.get(channel);
-		if (messengerList == null) {
-			messengerList = new HandlerList<Messenger>(Messenger.class);
-			this.messengers.put(channel, messengerList);
+	public static MessageChannel getChannel(String channel) throws IllegalArgumentException {
+		MessageBus bus = MessageBus.getInstance();
+		MessageChannel handle = bus.channels.get(channel);
+		if (handle == null) {
+			Message.validateChannel(channel);
+			handle = bus.getChannelHandle(channel);
 		}
+		return handle;
+	}
+
+	/**
+	 * Send a message with a single value on the specified channel, the
+	 * message is delivered synchronously and the value is not wrapped in a
+	 * payload map unless a receiver asks for one
+	 *
+	 * @param channel
+	 * @param value
+	 */
+	public static void send(MessageChannel channel, Object value) {
+		MessageBus.send(channel, value, null);
+	}
+
+	/**
+	 * Send a message with a single value on the specified channel from the
+	 * specified sender
+	 *
+	 * @param channel
+	 * @param value
+	 * @param sender
+	 */
+	public static void send(MessageChannel channel, Object value, Messenger sender) {
+		MessageBus.getInstance().sendMessage(new Message(channel, value, sender, null));
+	}
+
+	/**
+	 * Queue a message with a single value for asynchronous delivery on the
+	 * thread selected by the channel's {@link Delivery} mode. Messages posted
+	 * before startup completes are delivered on the first tick afterwards.
+	 *
+	 * @param channel
+	 * @param value
+	 * @return false if the channel's queue is full and the message was
+	 *      dropped
+	 */
+	public static boolean post(MessageChannel channel, Object value) {
+		return MessageBus.post(channel, value, null);
+	}
+
+	/**
+	 * Queue a message with a single value for asynchronous delivery from the
+	 * specified sender
+	 *
+	 * @param channel
+	 * @param value
+	 * @param sender
+	 * @return false if the channel's queue is full and the message was
+	 *      dropped
+	 */
+	public static boolean post(MessageChannel channel, Object value, Messenger sender) {
+		return MessageBus.getInstance().postMessage(channel, new Message(channel, value, sender, null));
+	}
+
+	/**
+	 * Send a request on the specified channel. The request is delivered
+	 * asynchronously like a posted message, receivers check
+	 * {@link Message#isRequest} and answer with {@link Message#reply}. The
+	 * returned future completes with the first reply, or exceptionally if the
+	 * channel has no messengers, the channel's request limit or queue is
+	 * exhausted, or no reply arrives before the timeout.
+	 *
+	 * <p>Since replies never re-enter the bus, receivers can safely make
+	 * further requests from {@link Messenger#receiveMessage}.</p>
+	 *
+	 * @param channel
+	 * @param value
+	 * @param timeout
+	 * @param unit
+	 */
+	public static CompletableFuture<Object> request(MessageChannel channel, Object value, long timeout, TimeUnit unit) {
+		return MessageBus.request(channel, value, null, timeout, unit);
+	}
+
+	/**
+	 * Send a request on the specified channel from the specified sender
+	 *
+	 * @param channel
+	 * @param value
+	 * @param sender
+	 * @param timeout
+	 * @param unit
+	 */
+	public static CompletableFuture<Object> request(MessageChannel channel, Object value, Messenger sender, long timeout, TimeUnit unit) {
+		return MessageBus.getInstance().requestMessage(channel, value, sender, timeout, unit);
+	}
 
-		return messengerList;
+	/**
+	 * Send a request on the specified channel
+	 *
+	 * @param channel
+	 * @param value
+	 * @param timeoutMillis
+	 */
+	public static CompletableFuture<Object> request(String channel, Object value, long timeoutMillis) {
+		return MessageBus.request(MessageBus.getChannel(channel), value, null, timeoutMillis, TimeUnit.MILLISECONDS);
 	}
 
 	/**
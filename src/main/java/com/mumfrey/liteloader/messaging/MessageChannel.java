@@ -0,0 +1,314 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.messaging;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mumfrey.liteloader.core.event.ConcurrentHandlerList;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Handle to a MessageBus channel. Handles are obtained from
+ * {@link MessageBus#getChannel} which validates the channel name once, and
+ * there is only ever one handle for each channel name so messages sent using
+ * a handle skip validation and channel lookup entirely.
+ *
+ * <p>Each channel also owns a bounded queue for messages posted with
+ * {@link MessageBus#post}, these messages are delivered on the thread
+ * selected by the channel's {@link Delivery} mode. Channels should normally
+ * be configured by the mod which receives their messages.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class MessageChannel {
+	/**
+	 * Default capacity of the async message queue
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Thread on which posted messages are delivered
+	 *
+	 * @author Adam Mummery-Smith
+	 */
+	public enum Delivery {
+		/**
+		 * Deliver on whichever game loop (client or server) ticks next
+		 */
+		TICK,
+
+		/**
+		 * Deliver on the client tick
+		 */
+		CLIENT_TICK,
+
+		/**
+		 * Deliver on the server tick
+		 */
+		SERVER_TICK,
+
+		/**
+		 * Deliver on the MessageBus worker thread
+		 */
+		WORKER;
+
+		boolean accepts(Delivery tick) {
+			return this == tick || (this == Delivery.TICK && tick != Delivery.WORKER);
+		}
+	}
+
+	/**
+	 * Behaviour of {@link MessageBus#request} when the channel already has
+	 * the maximum number of requests in flight
+	 *
+	 * @author Adam Mummery-Smith
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Fail the new request immediately
+		 */
+		DROP,
+
+		/**
+		 * Block the requesting thread until a request completes or the
+		 * request times out. Must not be used for requests made from the
+		 * thread which delivers the channel's messages.
+		 */
+		BLOCK
+	}
+
+	private final String name;
+
+	/**
+	 * Messengers are added from the main thread whilst messages may be
+	 * dispatched from any thread, so the list must be safe to bake and iterate
+	 * concurrently
+	 */
+	private final ConcurrentHandlerList<Messenger> messengers = new ConcurrentHandlerList<Messenger>(Messenger.class);
+
+	private volatile Delivery delivery = Delivery.TICK;
+
+	private volatile int capacity = MessageChannel.DEFAULT_CAPACITY;
+
+	/**
+	 * Queue for posted messages, created on first use
+	 */
+	private volatile MessageRing ring;
+
+	/**
+	 * Ensures that only one thread at a time consumes the queue
+	 */
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * Permits for in-flight requests, null if requests are unlimited
+	 */
+	private volatile Semaphore requestPermits;
+
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+	MessageChannel(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Get the channel name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Get the thread on which posted messages are delivered
+	 */
+	public Delivery getDelivery() {
+		return this.delivery;
+	}
+
+	/**
+	 * Set the thread on which posted messages are delivered and the maximum
+	 * number of messages which can be queued. The capacity can only be
+	 * changed before the first message is posted.
+	 *
+	 * @param delivery
+	 * @param capacity
+	 * @return this channel for chaining
+	 */
+	public synchronized MessageChannel setDelivery(Delivery delivery, int capacity) {
+		if (delivery == null) {
+			throw new IllegalArgumentException("Delivery cannot be null");
+		}
+
+		this.delivery = delivery;
+		if (this.ring == null) {
+			this.capacity = Math.max(1, capacity);
+		} else if (capacity != this.capacity) {
+			LiteLoaderLogger.warning("Ignoring capacity change for MessageBus channel %s, the channel is already in use", this.name);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Limit the number of requests which may be in flight on this channel at
+	 * any one time
+	 *
+	 * @param maxInFlight maximum requests in flight, 0 or less for unlimited
+	 * @param policy behaviour when the limit is reached
+	 * @return this channel for chaining
+	 */
+	public synchronized MessageChannel setRequestLimit(int maxInFlight, OverflowPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("Overflow policy cannot be null");
+		}
+
+		this.requestPermits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+		this.overflowPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Get the number of requests which may still be made before the request
+	 * limit is reached, or -1 if requests are unlimited
+	 */
+	public int getAvailableRequests() {
+		Semaphore permits = this.requestPermits;
+		return permits != null ? permits.availablePermits() : -1;
+	}
+
+	/**
+	 * Acquire a request permit according to the overflow policy
+	 *
+	 * @return the semaphore to release when the request completes, or null
+	 *      if requests are unlimited
+	 * @throws InterruptedException if interrupted while blocking
+	 * @throws IllegalStateException if no permit could be acquired
+	 */
+	Semaphore acquireRequestPermit(long timeout, TimeUnit unit) throws InterruptedException {
+		Semaphore permits = this.requestPermits;
+		if (permits == null) {
+			return null;
+		}
+
+		boolean acquired = this.overflowPolicy == OverflowPolicy.BLOCK ? permits.tryAcquire(timeout, unit) : permits.tryAcquire();
+		if (!acquired) {
+			this.dropped.increment();
+			throw new IllegalStateException("Too many requests in flight on MessageBus channel " + this.name);
+		}
+
+		return permits;
+	}
+
+	/**
+	 * Get the number of posted messages and requests which were dropped
+	 * because the queue was full or too many requests were in flight
+	 */
+	public long getDroppedCount() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Get the approximate number of posted messages awaiting delivery
+	 */
+	public int getPendingCount() {
+		MessageRing ring = this.ring;
+		return ring != null ? ring.size() : 0;
+	}
+
+	/**
+	 * Get whether any messengers are registered on this channel
+	 */
+	public boolean hasMessengers() {
+		return this.messengers.size() > 0;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+	void addMessenger(Messenger messenger) {
+		this.messengers.add(messenger);
+	}
+
+	/**
+	 * Deliver the message synchronously on the current thread
+	 */
+	void dispatch(Message message) {
+		if (this.messengers.size() > 0) {
+			this.messengers.all().receiveMessage(message);
+		}
+	}
+
+	/**
+	 * Queue a message for asynchronous delivery
+	 *
+	 * @return false if the queue is full and the message was dropped
+	 */
+	boolean offer(Message message) {
+		if (this.getRing().offer(message)) {
+			return true;
+		}
+
+		this.dropped.increment();
+		return false;
+	}
+
+	/**
+	 * Deliver queued messages if this channel is delivered on the specified
+	 * tick and no other thread is currently delivering
+	 *
+	 * @param tick
+	 * @return number of messages delivered
+	 */
+	int drain(Delivery tick) {
+		MessageRing ring = this.ring;
+		if (ring == null || !this.delivery.accepts(tick) || !this.draining.compareAndSet(false, true)) {
+			return 0;
+		}
+
+		int delivered = 0;
+		try {
+			// Don't deliver messages posted while draining, they wait for the next tick
+			for (int limit = ring.size(); delivered < limit; delivered++) {
+				Message message = ring.poll();
+				if (message == null) {
+					break;
+				}
+
+				try {
+					this.dispatch(message);
+				} catch (Exception ex) {
+					LiteLoaderLogger.warning(ex, "Error delivering message on MessageBus channel %s", this.name);
+				}
+			}
+		} finally {
+			this.draining.set(false);
+		}
+
+		return delivered;
+	}
+
+	private MessageRing getRing() {
+		MessageRing ring = this.ring;
+		if (ring == null) {
+			synchronized (this) {
+				if (this.ring == null) {
+					this.ring = new MessageRing(this.capacity);
+					MessageBus.getInstance().onChannelQueueCreated(this);
+				}
+				ring = this.ring;
+			}
+		}
+
+		return ring;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.messaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer single-consumer ring buffer used to queue messages
+ * for asynchronous delivery. Producers claim a sequence number by CAS and
+ * then publish into the claimed slot, the consumer reads slots in sequence
+ * order and stops at the first slot which has been claimed but not yet
+ * published, so messages are always delivered in the order in which they
+ * were claimed.
+ *
+ * <p>Only one thread may call {@link #poll} at a time, callers are
+ * responsible for enforcing this.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+final class MessageRing {
+	private final AtomicReferenceArray<Message> slots;
+
+	private final int mask;
+
+	/**
+	 * Next sequence to be claimed by a producer
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Next sequence to be read by the consumer, volatile so that producers
+	 * see space freed by the consumer
+	 */
+	private volatile long head;
+
+	MessageRing(int capacity) {
+		int size = capacity < 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.slots = new AtomicReferenceArray<Message>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Get the capacity of this ring
+	 */
+	int capacity() {
+		return this.mask + 1;
+	}
+
+	/**
+	 * Get the approximate number of queued messages
+	 */
+	int size() {
+		return (int) Math.max(0, this.tail.get() - this.head);
+	}
+
+	/**
+	 * Add a message to the ring
+	 *
+	 * @param message
+	 * @return false if the ring is full
+	 */
+	boolean offer(Message message) {
+		while (true) {
+			long tail = this.tail.get();
+			if (tail - this.head > this.mask) {
+				return false;
+			}
+
+			if (this.tail.compareAndSet(tail, tail + 1)) {
+				this.slots.lazySet((int) tail & this.mask, message);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Remove the next message from the ring
+	 *
+	 * @return next message or null if no message is available
+	 */
+	Message poll() {
+		long head = this.head;
+		int index = (int) head & this.mask;
+		Message message = this.slots.get(index);
+		if (message == null) {
+			return null;
+		}
+
+		this.slots.lazySet(index, null);
+		this.head = head + 1;
+		return message;
+	}
+}
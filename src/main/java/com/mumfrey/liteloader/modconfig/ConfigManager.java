@@ -7,10 +7,12 @@ package com.mumfrey.liteloader.modconfig;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
@@ -25,6 +27,11 @@ import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
  * @author Adam Mummery-Smith
  */
 public class ConfigManager {
+	/**
+	 * Maximum time to wait for queued config writes at shutdown
+	 */
+	private static final long SYNC_TIMEOUT_MS = 5000L;
+
 	/**
 	 * Mod config panel classes
 	 */
@@ -36,9 +43,15 @@ public class ConfigManager {
 	private Map<Exposable, ExposableConfigWriter> configWriters = new HashMap<Exposable, ExposableConfigWriter>();
 
 	/**
-	 * List of config writers, for faster iteration in onTick
+	 * Writers which have deferred a write because of anti-hammer, only these
+	 * writers need to be checked in onTick
+	 */
+	private final Set<ExposableConfigWriter> dirtyWriters = Collections.newSetFromMap(new ConcurrentHashMap<ExposableConfigWriter, Boolean>());
+
+	/**
+	 * Background queue which writes config files
 	 */
-	private List<ExposableConfigWriter> configWriterList = new ArrayList<ExposableConfigWriter>();
+	private final ConfigWriteQueue writeQueue = new ConfigWriteQueue();
 
 	/**
 	 * Register a mod, adds the config panel class to the map if the mod
@@ -88,10 +101,9 @@ public class ConfigManager {
 			}
 		}
 
-		ExposableConfigWriter configWriter = ExposableConfigWriter.create(exposable, strategy, fileName, aggressive);
+		ExposableConfigWriter configWriter = ExposableConfigWriter.create(exposable, strategy, fileName, aggressive, this.writeQueue);
 		if (configWriter != null) {
 			this.configWriters.put(exposable, configWriter);
-			this.configWriterList.add(configWriter);
 		}
 	}
 
@@ -165,34 +177,47 @@ public class ConfigManager {
 	}
 
 	/**
-	 * Invalidate the specified mod config, cause it to be written to disk or
-	 * scheduled for writing if it has been written recently.
+	 * Invalidate the specified mod config, cause it to be queued for writing
+	 * to disk or scheduled for writing if it has been written recently.
 	 *
 	 * @param exposable
 	 */
 	public void invalidateConfig(Exposable exposable) {
-		if (this.configWriters.containsKey(exposable)) {
-			this.configWriters.get(exposable).invalidate();
+		ExposableConfigWriter writer = this.configWriters.get(exposable);
+		if (writer != null && !writer.invalidate()) {
+			this.dirtyWriters.add(writer);
 		}
 	}
 
 	/**
-	 * Tick all of the configuration writers, handles latent writes for
+	 * Tick the dirty configuration writers, handles latent writes for
 	 * anti-hammer strategy.
 	 */
 	public void onTick() {
-		for (ExposableConfigWriter writer : this.configWriterList) {
-			writer.onTick();
+		if (this.dirtyWriters.isEmpty()) {
+			return;
+		}
+
+		for (ExposableConfigWriter writer : this.dirtyWriters) {
+			// Remove first so that an invalidation on another thread is not lost
+			this.dirtyWriters.remove(writer);
+			if (!writer.onTick()) {
+				this.dirtyWriters.add(writer);
+			}
 		}
 	}
 
 	/**
-	 * Force all mod configs to be flushed to disk
+	 * Force all mod configs to be flushed to disk, waits for queued writes to
+	 * complete
 	 */
 	public void syncConfig() {
-		for (ExposableConfigWriter writer : this.configWriterList) {
+		for (ExposableConfigWriter writer : this.configWriters.values()) {
 			writer.sync();
 		}
+		this.dirtyWriters.clear();
+
+		this.writeQueue.flush(ConfigManager.SYNC_TIMEOUT_MS, TimeUnit.MILLISECONDS);
 	}
 
 	/**
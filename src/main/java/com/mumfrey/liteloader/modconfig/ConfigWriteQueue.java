@@ -0,0 +1,108 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.modconfig;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.gson.JsonElement;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
+
+/**
+ * Write-behind queue for config files. Writers take a snapshot of their
+ * config on the calling thread and hand it to the queue, the snapshot is then
+ * written to disk on a single background thread. Writes are coalesced, if a
+ * writer submits a new snapshot before its previous snapshot was written then
+ * only the newest snapshot is written.
+ *
+ * @author Adam Mummery-Smith
+ */
+final class ConfigWriteQueue {
+	/**
+	 * Latest snapshot awaiting write for each writer, a writer only has a
+	 * write task queued whilst it has an entry in this map
+	 */
+	private final ConcurrentMap<ExposableConfigWriter, JsonElement> pending = new ConcurrentHashMap<ExposableConfigWriter, JsonElement>();
+
+	private ExecutorService thread;
+
+	/**
+	 * Queue a snapshot to be written
+	 *
+	 * @param writer
+	 * @param snapshot
+	 */
+	void submit(final ExposableConfigWriter writer, JsonElement snapshot) {
+		if (this.pending.put(writer, snapshot) != null) {
+			// A write is already queued and will pick up the new snapshot
+			return;
+		}
+
+		this.getThread().execute(new Runnable() {
+			@Override
+			public void run() {
+				JsonElement snapshot = ConfigWriteQueue.this.pending.remove(writer);
+				if (snapshot != null) {
+					writer.writeSnapshot(snapshot);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Wait for all snapshots queued before this call to be written
+	 *
+	 * @param timeout maximum time to wait
+	 * @param unit
+	 * @return true if all queued snapshots were written
+	 */
+	boolean flush(long timeout, TimeUnit unit) {
+		if (this.thread == null) {
+			return true;
+		}
+
+		Future<?> barrier = this.getThread().submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+
+		try {
+			barrier.get(timeout, unit);
+			return true;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			// can't happen
+		} catch (TimeoutException ex) {
+			LiteLoaderLogger.warning("Timed out waiting for %d config file(s) to be written", this.pending.size());
+		}
+
+		return false;
+	}
+
+	private synchronized ExecutorService getThread() {
+		if (this.thread == null) {
+			this.thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "LiteLoader Config Writer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		return this.thread;
+	}
+}
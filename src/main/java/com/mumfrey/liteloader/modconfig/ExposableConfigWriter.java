@@ -6,17 +6,29 @@
 package com.mumfrey.liteloader.modconfig;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.InstanceCreator;
+import com.google.gson.JsonElement;
+import com.mumfrey.liteloader.util.log.LiteLoaderLogger;
 
 /**
- * Manages serialisation of exposable properties to a JSON config file via Gson
+ * Manages serialisation of exposable properties to a JSON config file via Gson.
+ * The config is snapshotted on the thread which requests the write and the
+ * snapshot is written to disk by the {@link ConfigWriteQueue}, files are
+ * written to a temporary file and moved into place so that a crash during a
+ * write never leaves a truncated config behind.
  *
  * @author Adam Mummery-Smith
  */
@@ -51,6 +63,11 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	 */
 	private final Gson gson;
 
+	/**
+	 * Queue which writes snapshots to disk
+	 */
+	private final ConfigWriteQueue queue;
+
 	/**
 	 * True if a config write has been requested but anti-hammer has prevented
 	 * the write from occurring.
@@ -58,7 +75,7 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	private volatile boolean dirty = false;
 
 	/**
-	 * Last time the config was written, used for anti-hammer
+	 * Last time the config was snapshotted for writing, used for anti-hammer
 	 */
 	private volatile long lastWrite = 0L;
 
@@ -72,11 +89,12 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	 * @param exposable
 	 * @param configFile
 	 */
-	private ExposableConfigWriter(Exposable exposable, File configFile, boolean versioned, boolean aggressive) {
+	private ExposableConfigWriter(Exposable exposable, File configFile, boolean versioned, boolean aggressive, ConfigWriteQueue queue) {
 		this.exposable = exposable;
 		this.configFile = configFile;
 		this.versioned = versioned;
 		this.aggressive = aggressive;
+		this.queue = queue;
 
 		GsonBuilder gsonBuilder = new GsonBuilder();
 		gsonBuilder.setPrettyPrinting();
@@ -149,10 +167,10 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	void read() {
 		synchronized (this.readWriteLock) {
 			if (this.configFile.exists()) {
-				FileReader reader = null;
+				Reader reader = null;
 
 				try {
-					reader = new FileReader(this.configFile);
+					reader = Files.newReader(this.configFile, Charsets.UTF_8);
 
 					// Normally GSON would produce a new object by calling the default constructor, but we
 					// trick it into deserialising properties on the existing object instance by implementing
@@ -174,65 +192,99 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	}
 
 	/**
-	 * Write the config to the file
+	 * Write the config to the file immediately on the calling thread
 	 */
 	void write() {
+		this.writeSnapshot(this.snapshot());
+	}
+
+	/**
+	 * Serialise the current state of the config, the snapshot is detached
+	 * from the exposable so it can be written on another thread
+	 */
+	private JsonElement snapshot() {
+		JsonElement snapshot = this.gson.toJsonTree(this.exposable);
+		this.dirty = false;
+		this.lastWrite = System.currentTimeMillis();
+		return snapshot;
+	}
+
+	/**
+	 * Write a snapshot to the config file. The snapshot is written and synced
+	 * to a temporary file which then atomically replaces the config file.
+	 *
+	 * @param snapshot
+	 */
+	void writeSnapshot(JsonElement snapshot) {
 		synchronized (this.readWriteLock) {
-			FileWriter writer = null;
+			File tempFile = new File(this.configFile.getParentFile(), this.configFile.getName() + ".tmp");
 			try {
-				writer = new FileWriter(this.configFile);
-				this.gson.toJson(this.exposable, writer);
+				FileOutputStream stream = new FileOutputStream(tempFile);
+				try {
+					Writer writer = new OutputStreamWriter(stream, Charsets.UTF_8);
+					this.gson.toJson(snapshot, writer);
+					writer.flush();
+					stream.getFD().sync();
+				} finally {
+					stream.close();
+				}
 
-				this.dirty = false;
-				this.lastWrite = System.currentTimeMillis();
-			} catch (Exception ex) {
-				ex.printStackTrace();
-			} finally {
 				try {
-					if (writer != null) {
-						writer.close();
-					}
-				} catch (IOException ex) {
-					ex.printStackTrace();
+					java.nio.file.Files.move(tempFile.toPath(), this.configFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException ex) {
+					java.nio.file.Files.move(tempFile.toPath(), this.configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 				}
+			} catch (Exception ex) {
+				LiteLoaderLogger.warning(ex, "Error writing config file %s", this.configFile);
+				tempFile.delete();
 			}
 		}
 	}
 
 	/**
-	 * Write the config to file, respecting anti-hammer and queuing the write if
-	 * not enough time has elapsed.
+	 * Queue the config to be written to file, respecting anti-hammer and
+	 * deferring the write if not enough time has elapsed.
+	 *
+	 * @return false if the write was deferred and the writer is now dirty
 	 */
-	void invalidate() {
+	boolean invalidate() {
 		if (!this.aggressive) {
 			long sinceLastWrite = System.currentTimeMillis() - this.lastWrite;
 			if (sinceLastWrite < ANTI_HAMMER_DELAY) {
 				this.dirty = true;
-				return;
+				return false;
 			}
 		}
 
-		this.write();
+		this.queue.submit(this, this.snapshot());
+		return true;
 	}
 
 	/**
 	 * Handle latent writes if the config was previously invalidated
+	 *
+	 * @return true if this writer is no longer dirty
 	 */
-	void onTick() {
-		if (!this.aggressive && this.dirty) {
+	boolean onTick() {
+		if (this.dirty) {
 			long sinceLastWrite = System.currentTimeMillis() - this.lastWrite;
-			if (sinceLastWrite >= ANTI_HAMMER_DELAY) {
-				this.write();
+			if (sinceLastWrite < ANTI_HAMMER_DELAY) {
+				return false;
 			}
+
+			this.queue.submit(this, this.snapshot());
 		}
+
+		return true;
 	}
 
 	/**
-	 * Force a write if dirty
+	 * Queue a write if dirty
 	 */
 	void sync() {
 		if (this.dirty || this.aggressive) {
-			this.write();
+			this.queue.submit(this, this.snapshot());
 		}
 	}
 
@@ -243,8 +295,10 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 	 * @param exposable
 	 * @param strategy
 	 * @param fileName
+	 * @param aggressive
+	 * @param queue
 	 */
-	static ExposableConfigWriter create(Exposable exposable, ConfigStrategy strategy, String fileName, boolean aggressive) {
+	static ExposableConfigWriter create(Exposable exposable, ConfigStrategy strategy, String fileName, boolean aggressive, ConfigWriteQueue queue) {
 		if (!fileName.toLowerCase().endsWith(".json")) {
 			fileName = fileName + ".json";
 		}
@@ -258,7 +312,7 @@ public final class ExposableConfigWriter implements InstanceCreator<Exposable> {
 			}
 		}
 
-		ExposableConfigWriter writer = new ExposableConfigWriter(exposable, configFile, strategy == ConfigStrategy.Versioned, aggressive);
+		ExposableConfigWriter writer = new ExposableConfigWriter(exposable, configFile, strategy == ConfigStrategy.Versioned, aggressive, queue);
 
 		return writer;
 	}
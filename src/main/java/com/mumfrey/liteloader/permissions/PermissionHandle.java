@@ -0,0 +1,131 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.permissions;
+
+import com.mumfrey.liteloader.Permissible;
+
+/**
+ * Precompiled handle to a single mod permission. The permission name is
+ * formatted once when the handle is created and the resolved value is cached
+ * until the permissions of the owning mod are replaced, so checking a handle
+ * is only a pair of volatile reads in the common case. Use handles for
+ * permissions which are checked frequently, for example every frame.
+ *
+ * <p>Handles are obtained from
+ * {@link PermissionsManagerClient#registerModPermissionHandle}.</p>
+ *
+ * @author Adam Mummery-Smith
+ */
+public final class PermissionHandle {
+	private static final long SET = 1L;
+	private static final long VALUE = 2L;
+	private static final int GENERATION_SHIFT = 2;
+
+	/**
+	 * Generation which is never current, used to force resolution
+	 */
+	private static final long UNRESOLVED = -1L;
+
+	private final PermissionsManagerClient manager;
+
+	private final Permissible mod;
+
+	/**
+	 * Fully qualified permission name
+	 */
+	private final String permission;
+
+	/**
+	 * Manager generation the state was resolved in, shifted left by
+	 * {@link #GENERATION_SHIFT}, combined with the SET and VALUE flags so that
+	 * the whole state is published in a single write
+	 */
+	private volatile long state = PermissionHandle.UNRESOLVED;
+
+	PermissionHandle(PermissionsManagerClient manager, Permissible mod, String permission) {
+		this.manager = manager;
+		this.mod = mod;
+		this.permission = permission;
+	}
+
+	/**
+	 * Get the mod which owns this permission
+	 */
+	public Permissible getMod() {
+		return this.mod;
+	}
+
+	/**
+	 * Get the fully qualified permission name
+	 */
+	public String getPermission() {
+		return this.permission;
+	}
+
+	/**
+	 * Get the value of the permission, equivalent to
+	 * {@link PermissionsManagerClient#getModPermission(Permissible, String)}
+	 */
+	public boolean getValue() {
+		return (this.getState() & PermissionHandle.VALUE) != 0;
+	}
+
+	/**
+	 * Get the value of the permission or the default value if the permission
+	 * is not set, equivalent to
+	 * {@link PermissionsManagerClient#getModPermission(Permissible, String,
+	 * boolean)}
+	 *
+	 * @param defaultValue Value to return if the permission is not set
+	 */
+	public boolean getValue(boolean defaultValue) {
+		long state = this.getState();
+		return (state & PermissionHandle.SET) != 0 ? (state & PermissionHandle.VALUE) != 0 : defaultValue;
+	}
+
+	/**
+	 * Get whether the permission is set
+	 */
+	public boolean isSet() {
+		return (this.getState() & PermissionHandle.SET) != 0;
+	}
+
+	private long getState() {
+		long state = this.state;
+		int generation = this.manager.getGeneration();
+		if (state != PermissionHandle.UNRESOLVED && (state >>> PermissionHandle.GENERATION_SHIFT) == (generation & 0xFFFFFFFFL)) {
+			return state;
+		}
+
+		return this.resolve(generation);
+	}
+
+	/**
+	 * Resolve the permission against the current permissions. The generation
+	 * is read before resolving, if the permissions are replaced whilst
+	 * resolving then the state is stale and is resolved again on the next
+	 * check.
+	 */
+	private long resolve(int generation) {
+		Permissions permissions = this.manager.getPermissions(this.mod);
+		boolean value = permissions == null || permissions.getHasPermission(this.permission);
+		boolean set = permissions != null && permissions.getPermissionSet(this.permission);
+
+		long state = ((generation & 0xFFFFFFFFL) << PermissionHandle.GENERATION_SHIFT)
+				| (set ? PermissionHandle.SET : 0L)
+				| (value ? PermissionHandle.VALUE : 0L);
+		this.state = state;
+		return state;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.permission;
+	}
+}
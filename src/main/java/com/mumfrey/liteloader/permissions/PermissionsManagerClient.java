@@ -73,6 +73,23 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 	 */
 	private final Map<String, ServerPermissions> serverPermissions = new HashMap<String, ServerPermissions>();
 
+	/**
+	 * Binary format version supported by the current server, queries are sent
+	 * using Java serialization until the server advertises the binary format
+	 */
+	private volatile int serverCodecVersion = 0;
+
+	/**
+	 * Incremented whenever server permissions are added, replaced or removed,
+	 * permission handles resolved in an earlier generation are stale
+	 */
+	private volatile int generation = 0;
+
+	/**
+	 * Permission handles, indexed by fully qualified permission name
+	 */
+	private final Map<String, PermissionHandle> permissionHandles = new HashMap<String, PermissionHandle>();
+
 	/**
 	 * Minecraft instance
 	 */
@@ -199,8 +216,11 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 	protected void clearServerPermissions() {
 		synchronized (this.serverPermissions) {
 			this.serverPermissions.clear();
+			this.generation++;
 		}
 
+		this.serverCodecVersion = 0;
+
 		for (Permissible permissible : this.permissibles) {
 			permissible.onPermissionsCleared(this);
 		}
@@ -238,15 +258,16 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 				ReplicatedPermissionsContainer query = new ReplicatedPermissionsContainer(modName, modVersion, modPermissions);
 
 				if (!query.modName.equals("all") || query.permissions.size() > 0) {
-					byte[] data = query.getBytes();
 					PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
-					buffer.writeBytes(data);
+					query.writeTo(buffer, this.serverCodecVersion >= ReplicatedPermissionsContainer.CODEC_VERSION);
 					ClientPluginChannels.sendMessage(ReplicatedPermissionsContainer.CHANNEL, buffer, ChannelPolicy.DISPATCH_ALWAYS);
 				}
 			}
 		} else {
 			synchronized (this.serverPermissions) {
-				this.serverPermissions.remove(modName);
+				if (this.serverPermissions.remove(modName) != null) {
+					this.generation++;
+				}
 			}
 		}
 	}
@@ -310,8 +331,11 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 			}
 
 			if (modPermissions != null && modPermissions.getModName() != null) {
+				this.serverCodecVersion = modPermissions.getCodecVersion();
+
 				synchronized (this.serverPermissions) {
 					this.serverPermissions.put(modPermissions.getModName(), modPermissions);
+					this.generation++;
 				}
 
 				Permissible permissible = this.registeredClientMods.get(modPermissions.getModName());
@@ -364,6 +388,50 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 		}
 	}
 
+	/**
+	 * Register a permission for all mods and get a handle which can be used
+	 * to check the permission cheaply, see {@link #registerPermission}
+	 *
+	 * @param permission
+	 */
+	public PermissionHandle registerPermissionHandle(String permission) {
+		return this.registerModPermissionHandle(allMods, permission);
+	}
+
+	/**
+	 * Register a permission for the specified mod and get a handle which can
+	 * be used to check the permission cheaply, see
+	 * {@link #registerModPermission}. The handle caches the value of the
+	 * permission until the mod's permissions are replicated again, use
+	 * handles in preference to {@link #getModPermission} for permissions
+	 * which are checked frequently.
+	 *
+	 * @param mod
+	 * @param permission
+	 */
+	public PermissionHandle registerModPermissionHandle(Permissible mod, String permission) {
+		if (mod == null) mod = allMods;
+		this.registerModPermission(mod, permission);
+
+		String modPermission = PermissionsManagerClient.formatModPermission(mod.getPermissibleModName(), permission);
+		synchronized (this.permissionHandles) {
+			PermissionHandle handle = this.permissionHandles.get(modPermission);
+			if (handle == null) {
+				handle = new PermissionHandle(this, mod, modPermission);
+				this.permissionHandles.put(modPermission, handle);
+			}
+			return handle;
+		}
+	}
+
+	/**
+	 * Get the current permissions generation, used by permission handles to
+	 * detect that their cached value is stale
+	 */
+	int getGeneration() {
+		return this.generation;
+	}
+
 	/**
 	 * Get the value of the specified permission for all mods.
 	 *
@@ -457,7 +525,7 @@ public final class PermissionsManagerClient implements PermissionsManager, Plugi
 	 * @param permission
 	 */
 	protected static String formatModPermission(String modName, String permission) {
-		return String.format("mod.%s.%s", modName, permission);
+		return "mod." + modName + "." + permission;
 	}
 
 	/* (non-Javadoc)
@@ -9,6 +9,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import net.eq2online.permissions.ReplicatedPermissionsContainer;
+import net.eq2online.permissions.ReplicatedPermissionsContainer.PermissionSink;
 import net.minecraft.network.PacketBuffer;
 
 
@@ -50,6 +51,12 @@ public class ServerPermissions implements ReplicatedPermissions {
 	 */
 	protected long refreshTime = 15L * 1000L;       // 15 seconds
 
+	/**
+	 * Binary format version advertised by the server, 0 if the server only
+	 * supports Java serialization
+	 */
+	protected int codecVersion = 0;
+
 	/**
 	 * @param data
 	 */
@@ -57,12 +64,19 @@ public class ServerPermissions implements ReplicatedPermissions {
 		this.createdTime = System.currentTimeMillis();
 		this.validUntil = this.createdTime + this.cacheTime;
 
-		ReplicatedPermissionsContainer response = ReplicatedPermissionsContainer.fromPacketBuffer(data);
+		// Binary responses are added straight to the tree, node by node
+		ReplicatedPermissionsContainer response = ReplicatedPermissionsContainer.fromPacketBuffer(data, new PermissionSink() {
+			@Override
+			public void addPermission(String[] nodes, int nodeCount, boolean value) {
+				ServerPermissions.this.addPermission(nodes, nodeCount, value);
+			}
+		});
 
 		if (response != null) {
 			response.sanitise();
 
 			this.modName = response.modName;
+			this.codecVersion = response.codecVersion;
 			this.validUntil = System.currentTimeMillis() + response.remoteCacheTimeSeconds * 1000L;
 
 			for (String permissionString : response.permissions) {
@@ -78,6 +92,40 @@ public class ServerPermissions implements ReplicatedPermissions {
 		}
 	}
 
+	/**
+	 * Add a permission decoded from the binary format, the nodes are validated
+	 * against the same rules as the permission pattern
+	 */
+	private void addPermission(String[] nodes, int nodeCount, boolean value) {
+		for (int node = 0; node < nodeCount; node++) {
+			if (!ServerPermissions.isValidNode(nodes[node], node == nodeCount - 1)) {
+				return;
+			}
+		}
+
+		Permission permission = this.permissions;
+		for (int node = 0; node < nodeCount - 1; node++) {
+			permission = permission.setPermission(nodes[node], false);
+		}
+
+		permission.setPermissionAndValue(nodes[nodeCount - 1], value);
+	}
+
+	private static boolean isValidNode(String node, boolean leaf) {
+		if (node.isEmpty()) {
+			return false;
+		}
+
+		for (int pos = 0; pos < node.length(); pos++) {
+			char c = node.charAt(pos);
+			if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && !(leaf && c == '*')) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Get the permissible mod name
 	 */
@@ -85,6 +133,13 @@ public class ServerPermissions implements ReplicatedPermissions {
 		return this.modName;
 	}
 
+	/**
+	 * Get the binary format version advertised by the server
+	 */
+	public int getCodecVersion() {
+		return this.codecVersion;
+	}
+
 	/* (non-Javadoc)
 	 * @see net.eq2online.permissions.Permissions#getPermissionSet(
 	 *      java.lang.String)
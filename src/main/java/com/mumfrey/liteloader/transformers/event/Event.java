@@ -360,6 +360,9 @@ public class Event implements Comparable<Event> {
 
 		InsnList insns = new InsnList();
 
+		// Allow subclasses to skip the event entirely
+		LabelNode skipEvent = this.injectGuard(insns);
+
 		boolean pushReturnValue = false;
 
 		// If this is a ReturnEventInfo AND we are right before a RETURN opcode (so we can expect the *original* return
@@ -372,12 +375,8 @@ public class Event implements Comparable<Event> {
 		}
 
 		// Instance the EventInfo for this event
-		insns.add(new TypeInsnNode(Opcodes.NEW, this.eventInfoClass));
-		ctorMAXS++;
-		insns.add(new InsnNode(Opcodes.DUP));
-		ctorMAXS++;
+		ctorMAXS += this.createEventInfo(insns, cancellable, pushReturnValue, marshallVar);
 		invokeMAXS++;
-		ctorMAXS += this.invokeEventInfoConstructor(insns, cancellable, pushReturnValue, marshallVar);
 		insns.add(new VarInsnNode(Opcodes.ASTORE, marshallVar));
 
 		// Call the event handler method in the proxy
@@ -393,6 +392,10 @@ public class Event implements Comparable<Event> {
 			this.injectCancellationCode(insns, injectionPoint, marshallVar);
 		}
 
+		if (skipEvent != null) {
+			insns.add(skipEvent);
+		}
+
 		// Inject our generated code into the method
 		this.method.instructions.insertBefore(injectionPoint, insns);
 		this.method.maxStack = Math.max(this.method.maxStack, Math.max(this.methodMAXS + ctorMAXS, this.methodMAXS + invokeMAXS));
@@ -411,6 +414,37 @@ public class Event implements Comparable<Event> {
 		return eventDescriptor + ")V";
 	}
 
+	/**
+	 * Inject a guard at the start of the event injection, if a label is
+	 * returned then the guard code may jump to it in order to skip the event
+	 * altogether. The stack must be unchanged when jumping. Returns null by
+	 * default, which injects no guard.
+	 *
+	 * @param insns Instruction list to append to
+	 * @return label to jump to in order to skip the event, or null
+	 */
+	protected LabelNode injectGuard(InsnList insns) {
+		return null;
+	}
+
+	/**
+	 * Inject the code which obtains the EventInfo for this event, the
+	 * EventInfo should be left on the stack. By default a new EventInfo is
+	 * instanced.
+	 *
+	 * @return max stack used
+	 */
+	protected int createEventInfo(InsnList insns, boolean cancellable, boolean pushReturnValue, int marshallVar) {
+		int ctorMAXS = 0;
+
+		insns.add(new TypeInsnNode(Opcodes.NEW, this.eventInfoClass));
+		ctorMAXS++;
+		insns.add(new InsnNode(Opcodes.DUP));
+		ctorMAXS++;
+
+		return ctorMAXS + this.invokeEventInfoConstructor(insns, cancellable, pushReturnValue, marshallVar);
+	}
+
 	protected int invokeEventInfoConstructor(InsnList insns, boolean cancellable, boolean pushReturnValue, int marshallVar) {
 		int ctorMAXS = 0;
 
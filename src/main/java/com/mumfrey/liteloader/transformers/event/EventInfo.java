@@ -22,11 +22,11 @@ public class EventInfo<S> implements Cancellable {
 	protected static final String STRING = "Ljava/lang/String;";
 	protected static final String OBJECT = "Ljava/lang/Object;";
 
-	private final String name;
+	private String name;
 
-	private final S source;
+	private S source;
 
-	private final boolean cancellable;
+	private boolean cancellable;
 
 	private boolean cancelled;
 
@@ -36,6 +36,25 @@ public class EventInfo<S> implements Cancellable {
 		this.cancellable = cancellable;
 	}
 
+	/**
+	 * Reinitialise this EventInfo for a new event, allows subclasses to pool
+	 * and reuse instances on hot paths.
+	 */
+	protected void reset(String name, S source, boolean cancellable) {
+		this.name = name;
+		this.source = source;
+		this.cancellable = cancellable;
+		this.cancelled = false;
+	}
+
+	/**
+	 * Drop the reference to the source object, allows pooled instances to
+	 * release the source once the event has been dispatched.
+	 */
+	protected void clearSource() {
+		this.source = null;
+	}
+
 	public S getSource() {
 		return this.source;
 	}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of LiteLoader.
+ * Copyright (C) 2012-16 Adam Mummery-Smith
+ * All Rights Reserved.
+ */
+package com.mumfrey.liteloader.util.log;
+
+import java.util.IllegalFormatException;
+
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * Message which defers {@link String#format} until the message is actually
+ * rendered by an appender, the formatted message is cached so that it is only
+ * formatted once no matter how many appenders receive the event. Malformed
+ * format strings are rendered with the format specifiers defused rather than
+ * throwing.
+ *
+ * @author Adam Mummery-Smith
+ */
+final class LazyFormattedMessage implements Message {
+	private static final long serialVersionUID = 1L;
+
+	private final String format;
+
+	private final transient Object[] parameters;
+
+	private String formatted;
+
+	LazyFormattedMessage(String format, Object[] parameters) {
+		this.format = format;
+		this.parameters = parameters;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.logging.log4j.message.Message#getFormattedMessage()
+	 */
+	@Override
+	public String getFormattedMessage() {
+		if (this.formatted == null) {
+			try {
+				this.formatted = String.format(this.format, this.parameters);
+			} catch (IllegalFormatException ex) {
+				this.formatted = this.format.replace('%', '@');
+			}
+		}
+
+		return this.formatted;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.logging.log4j.message.Message#getFormat()
+	 */
+	@Override
+	public String getFormat() {
+		return this.format;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.logging.log4j.message.Message#getParameters()
+	 */
+	@Override
+	public Object[] getParameters() {
+		return this.parameters;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.logging.log4j.message.Message#getThrowable()
+	 */
+	@Override
+	public Throwable getThrowable() {
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return this.getFormattedMessage();
+	}
+}
@@ -14,7 +14,12 @@ import org.apache.logging.log4j.core.appender.AbstractAppender;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Gateway class for the log4j logger
@@ -26,11 +31,22 @@ public class LiteLoaderLogger extends AbstractAppender {
 
 	private static final int LOG_TAIL_SIZE = 500;
 
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("'['HH:mm:ss'] '").withZone(ZoneId.systemDefault());
+
 	private static Logger logger = (Logger) LogManager.getLogger("LiteLoader");
 
-	private static Deque<String> logTail = new LinkedList<String>();
+	/**
+	 * Ring of the most recent log lines, the line with index n is stored in
+	 * slot n % LOG_TAIL_SIZE. Appenders claim a contiguous block of line
+	 * indices for each event so that lines from concurrent events are never
+	 * interleaved, and readers never block appenders.
+	 */
+	private static final AtomicReferenceArray<LogLine> logTail = new AtomicReferenceArray<LogLine>(LiteLoaderLogger.LOG_TAIL_SIZE);
 
-	private static long logIndex = 0;
+	/**
+	 * Index of the next log line to be claimed
+	 */
+	private static final AtomicLong logIndex = new AtomicLong();
 
 	private static Throwable lastThrowable;
 
@@ -55,6 +71,34 @@ public class LiteLoaderLogger extends AbstractAppender {
 		}
 	}
 
+	/**
+	 * A single line in the log tail, the timestamp is only formatted if the
+	 * line is read
+	 */
+	static final class LogLine {
+		final long index;
+
+		final long timestamp;
+
+		final String message;
+
+		private String formatted;
+
+		LogLine(long index, long timestamp, String message) {
+			this.index = index;
+			this.timestamp = timestamp;
+			this.message = message;
+		}
+
+		@Override
+		public String toString() {
+			if (this.formatted == null) {
+				this.formatted = LiteLoaderLogger.TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(this.timestamp)) + this.message;
+			}
+			return this.formatted;
+		}
+	}
+
 	private static Verbosity verbosity = LiteLoaderLogger.DEBUG ? Verbosity.VERBOSE : Verbosity.NORMAL;
 
 	static {
@@ -72,54 +116,95 @@ public class LiteLoaderLogger extends AbstractAppender {
 
 	@Override
 	public void append(LogEvent event) {
-		synchronized (LiteLoaderLogger.logTail) {
-			LiteLoaderLogger.logIndex++;
-			this.append(event.getTimeMillis(), event.getMessage().getFormattedMessage());
-			Throwable thrown = event.getThrown();
-			if (thrown != null) {
-				this.append(event.getTimeMillis(), String.format("\2474%s: \2476%s", thrown.getClass().getSimpleName(), thrown.getMessage()));
-			}
+		String message = event.getMessage().getFormattedMessage();
+		Throwable thrown = event.getThrown();
+		String thrownMessage = thrown != null ? String.format("\2474%s: \2476%s", thrown.getClass().getSimpleName(), thrown.getMessage()) : null;
+
+		int lineCount = LiteLoaderLogger.countLines(message) + (thrownMessage != null ? LiteLoaderLogger.countLines(thrownMessage) : 0);
+		long index = LiteLoaderLogger.logIndex.getAndAdd(lineCount);
+		index = LiteLoaderLogger.append(index, event.getTimeMillis(), message);
+		if (thrownMessage != null) {
+			LiteLoaderLogger.append(index, event.getTimeMillis(), thrownMessage);
+		}
+	}
+
+	private static int countLines(String message) {
+		int lines = 1;
+		for (int pos = message.indexOf('\n'); pos > -1; pos = message.indexOf('\n', pos + 1)) {
+			lines++;
 		}
+		return lines;
 	}
 
 	/**
-	 * @param message
+	 * Store each line of the message starting at the specified line index
+	 *
+	 * @return the next line index
 	 */
-	private void append(long timestamp, String message) {
-		String date = new java.text.SimpleDateFormat("[HH:mm:ss] ").format(new Date(timestamp));
-
-		while (message.indexOf('\n') > -1) {
-			int lineFeedPos = message.indexOf('\n');
-			this.appendLine(date + message.substring(0, lineFeedPos));
-			message = message.substring(lineFeedPos + 1);
+	private static long append(long index, long timestamp, String message) {
+		int start = 0;
+		for (int end = message.indexOf('\n'); end > -1; end = message.indexOf('\n', start)) {
+			LiteLoaderLogger.appendLine(index++, timestamp, message.substring(start, end));
+			start = end + 1;
 		}
 
-		this.appendLine(date + message);
+		LiteLoaderLogger.appendLine(index++, timestamp, start == 0 ? message : message.substring(start));
+		return index;
+	}
+
+	private static void appendLine(long index, long timestamp, String line) {
+		LiteLoaderLogger.logTail.set((int) (index % LiteLoaderLogger.LOG_TAIL_SIZE), new LogLine(index, timestamp, line));
 	}
 
 	/**
-	 * @param line
+	 * Get the index of the next log line, this increases whenever lines are
+	 * added to the log
 	 */
-	private void appendLine(String line) {
-		LiteLoaderLogger.logTail.add(line);
-
-		if (LiteLoaderLogger.logTail.size() > LiteLoaderLogger.LOG_TAIL_SIZE) {
-			LiteLoaderLogger.logTail.remove();
-		}
+	public static long getLogIndex() {
+		return LiteLoaderLogger.logIndex.get();
 	}
 
-	public static long getLogIndex() {
-		return LiteLoaderLogger.logIndex;
+	/**
+	 * Get the maximum number of lines retained in the log tail
+	 */
+	public static int getLogTailSize() {
+		return LiteLoaderLogger.LOG_TAIL_SIZE;
 	}
 
+	/**
+	 * Get the lines currently in the log tail
+	 */
 	public static List<String> getLogTail() {
 		List<String> log = new ArrayList<String>();
+		LiteLoaderLogger.getLogTail(0, log);
+		return log;
+	}
+
+	/**
+	 * Read the log lines added since the specified log index, lines which are
+	 * no longer in the log tail are skipped. Pass the returned value as the
+	 * index in the next call to receive only lines added after this call.
+	 *
+	 * @param fromIndex index of the first line to read
+	 * @param lines list to append lines to
+	 * @return log index to use for the next call
+	 */
+	public static long getLogTail(long fromIndex, List<String> lines) {
+		long toIndex = LiteLoaderLogger.logIndex.get();
+		long index = Math.max(Math.max(fromIndex, 0), toIndex - LiteLoaderLogger.LOG_TAIL_SIZE);
+		for (; index < toIndex; index++) {
+			LogLine line = LiteLoaderLogger.logTail.get((int) (index % LiteLoaderLogger.LOG_TAIL_SIZE));
+			if (line == null || line.index < index) {
+				// Claimed but not yet written, pick it up next time
+				break;
+			}
 
-		synchronized (LiteLoaderLogger.logTail) {
-			log.addAll(LiteLoaderLogger.logTail);
+			if (line.index == index) {
+				lines.add(line.toString());
+			}
 		}
 
-		return log;
+		return index;
 	}
 
 	public static Logger getLogger() {
@@ -148,16 +233,24 @@ public class LiteLoaderLogger extends AbstractAppender {
 		return lastThrowableWrapped;
 	}
 
+	/**
+	 * Get whether a message at the specified level and verbosity would be
+	 * logged, callers which need to do expensive work to compute log
+	 * arguments can use this to skip the work entirely
+	 *
+	 * @param level
+	 * @param verbosity
+	 */
+	public static boolean isEnabled(Level level, Verbosity verbosity) {
+		return verbosity.level <= LiteLoaderLogger.verbosity.level && LiteLoaderLogger.logger.isEnabled(level);
+	}
+
 	private static void log(Level level, Verbosity verbosity, String format, Object... data) {
-		if (verbosity.level > LiteLoaderLogger.verbosity.level) {
+		if (!LiteLoaderLogger.isEnabled(level, verbosity)) {
 			return;
 		}
 
-		try {
-			LiteLoaderLogger.logger.log(level, String.format(format, data));
-		} catch (MissingFormatArgumentException ex) {
-			LiteLoaderLogger.logger.log(level, format.replace('%', '@'));
-		}
+		LiteLoaderLogger.logger.log(level, new LazyFormattedMessage(format, data));
 	}
 
 	private static void log(Level level, Verbosity verbosity, Throwable th, String format, Object... data) {
@@ -167,8 +260,12 @@ public class LiteLoaderLogger extends AbstractAppender {
 
 		LiteLoaderLogger.lastThrowable = th;
 
+		if (!LiteLoaderLogger.logger.isEnabled(level)) {
+			return;
+		}
+
 		try {
-			LiteLoaderLogger.logger.log(level, String.format(format, data), th);
+			LiteLoaderLogger.logger.log(level, new LazyFormattedMessage(format, data), th);
 		} catch (
 			LinkageError ex) // This happens because of ClassLoader scope derpiness during the PREINIT and INIT phases
 		{
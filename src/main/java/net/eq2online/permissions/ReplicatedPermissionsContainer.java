@@ -5,20 +5,36 @@
  */
 package net.eq2online.permissions;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import net.minecraft.network.PacketBuffer;
 
 /**
- * Serializable container object
+ * Serializable container object. Containers are exchanged either using Java
+ * serialization (the legacy format understood by every peer) or a compact
+ * binary format. Peers which understand the binary format advertise the fact
+ * by setting {@link #codecVersion} in the legacy format, the binary format is
+ * only sent to peers which have advertised it. Both formats can always be
+ * decoded, the binary format is identified by its leading magic byte which
+ * can never begin a Java serialization stream.
+ *
+ * <p>In the binary format each permission is split into its nodes, distinct
+ * node names are sent once in a string table and each permission is sent as
+ * a list of indices into the table, so shared prefixes cost one varint per
+ * node.</p>
  *
  * @author Adam Mummery-Smith
  */
@@ -50,8 +66,46 @@ public class ReplicatedPermissionsContainer implements Serializable {
 	 */
 	public long remoteCacheTimeSeconds = 600L;  // 10 minutes
 
+	/**
+	 * Highest binary format version supported by the sender, 0 for peers
+	 * which only support Java serialization
+	 */
+	public int codecVersion = ReplicatedPermissionsContainer.CODEC_VERSION;
+
 	public static final String CHANNEL = "PERMISSIONSREPL";
 
+	/**
+	 * Current binary format version
+	 */
+	public static final int CODEC_VERSION = 1;
+
+	/**
+	 * First byte of the binary format, Java serialization streams begin 0xAC
+	 */
+	private static final byte BINARY_MAGIC = 0x4C;
+
+	private static final int MAX_STRING_LENGTH = 32767;
+
+	private static final int MAX_NODES = 256;
+
+	private static final byte FLAG_NEGATED = 0;
+	private static final byte FLAG_GRANTED = 1;
+	private static final byte FLAG_UNSIGNED = 2;
+
+	/**
+	 * Receives permissions decoded from the binary format without building
+	 * the permission strings
+	 */
+	public interface PermissionSink {
+		/**
+		 * @param nodes node names, only the first nodeCount entries are valid
+		 *      and the array is reused between calls
+		 * @param nodeCount number of nodes in the permission
+		 * @param value true for a granted permission, false for negated
+		 */
+		public abstract void addPermission(String[] nodes, int nodeCount, boolean value);
+	}
+
 	public ReplicatedPermissionsContainer() {
 	}
 
@@ -95,20 +149,108 @@ public class ReplicatedPermissionsContainer implements Serializable {
 	}
 
 	/**
-	 * Deserialises a replicated permissions container from a byte array
+	 * Serialise this container directly into a packet buffer
+	 *
+	 * @param buffer buffer to write to
+	 * @param binary true to use the binary format, only use the binary format
+	 *      if the remote host advertised it
+	 */
+	public void writeTo(PacketBuffer buffer, boolean binary) {
+		if (binary) {
+			this.writeBinary(buffer);
+			return;
+		}
+
+		try {
+			ObjectOutputStream outputStream = new ObjectOutputStream(new ByteBufOutputStream(buffer));
+			outputStream.writeObject(this);
+			outputStream.flush();
+		} catch (IOException e) {
+		}
+	}
+
+	private void writeBinary(PacketBuffer buffer) {
+		List<String> table = new ArrayList<String>();
+		Map<String, Integer> tableIndex = new HashMap<String, Integer>();
+		List<int[]> paths = new ArrayList<int[]>(this.permissions.size());
+		byte[] flags = new byte[this.permissions.size()];
+
+		for (String permission : this.permissions) {
+			byte flag = ReplicatedPermissionsContainer.FLAG_UNSIGNED;
+			if (permission.startsWith("+")) {
+				flag = ReplicatedPermissionsContainer.FLAG_GRANTED;
+				permission = permission.substring(1);
+			} else if (permission.startsWith("-")) {
+				flag = ReplicatedPermissionsContainer.FLAG_NEGATED;
+				permission = permission.substring(1);
+			}
+
+			String[] nodes = permission.split("\\.", -1);
+			int[] path = new int[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				Integer index = tableIndex.get(nodes[i]);
+				if (index == null) {
+					index = table.size();
+					tableIndex.put(nodes[i], index);
+					table.add(nodes[i]);
+				}
+				path[i] = index.intValue();
+			}
+
+			flags[paths.size()] = flag;
+			paths.add(path);
+		}
+
+		buffer.writeByte(ReplicatedPermissionsContainer.BINARY_MAGIC);
+		buffer.writeVarInt(ReplicatedPermissionsContainer.CODEC_VERSION);
+		buffer.writeString(this.modName != null ? this.modName : "");
+		buffer.writeFloat(this.modVersion != null ? this.modVersion.floatValue() : 0.0F);
+		buffer.writeVarLong(this.remoteCacheTimeSeconds);
+
+		buffer.writeVarInt(table.size());
+		for (String node : table) {
+			buffer.writeString(node);
+		}
+
+		buffer.writeVarInt(paths.size());
+		for (int i = 0; i < paths.size(); i++) {
+			int[] path = paths.get(i);
+			buffer.writeByte(flags[i]);
+			buffer.writeVarInt(path.length);
+			for (int index : path) {
+				buffer.writeVarInt(index);
+			}
+		}
+	}
+
+	/**
+	 * Deserialises a replicated permissions container from a packet buffer
 	 *
-	 * @param data Byte array containing the serialised data
+	 * @param data Buffer containing the serialised data
 	 * @return new container or null if deserialisation failed
 	 */
 	public static ReplicatedPermissionsContainer fromPacketBuffer(PacketBuffer data) {
+		return ReplicatedPermissionsContainer.fromPacketBuffer(data, null);
+	}
+
+	/**
+	 * Deserialises a replicated permissions container from a packet buffer. If
+	 * the data is in the binary format and a sink is supplied, permissions are
+	 * passed to the sink instead of being added to the container.
+	 *
+	 * @param data Buffer containing the serialised data
+	 * @param sink Sink for binary permissions, can be null
+	 * @return new container or null if deserialisation failed
+	 */
+	public static ReplicatedPermissionsContainer fromPacketBuffer(PacketBuffer data, PermissionSink sink) {
 		try {
-			int readableBytes = data.readableBytes();
-			if (readableBytes == 0) return null;
+			if (data.readableBytes() == 0) return null;
 
-			byte[] payload = new byte[readableBytes];
-			data.readBytes(payload);
+			if (data.getByte(data.readerIndex()) == ReplicatedPermissionsContainer.BINARY_MAGIC) {
+				return ReplicatedPermissionsContainer.readBinary(data, sink);
+			}
 
-			ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(payload));
+			ObjectInputStream inputStream = new ObjectInputStream(new ByteBufInputStream(data));
 			ReplicatedPermissionsContainer object = (ReplicatedPermissionsContainer) inputStream.readObject();
 			return object;
 		} catch (IOException e) {
@@ -117,8 +259,86 @@ public class ReplicatedPermissionsContainer implements Serializable {
 			// Don't care
 		} catch (ClassCastException e) {
 			// Don't care
+		} catch (RuntimeException e) {
+			// Malformed binary data, don't care
 		}
 
 		return null;
 	}
+
+	private static ReplicatedPermissionsContainer readBinary(PacketBuffer data, PermissionSink sink) {
+		data.readByte();
+		int version = data.readVarInt();
+		if (version < 1) {
+			return null;
+		}
+
+		ReplicatedPermissionsContainer container = new ReplicatedPermissionsContainer();
+		container.codecVersion = version;
+		container.modName = data.readString(ReplicatedPermissionsContainer.MAX_STRING_LENGTH);
+		container.modVersion = data.readFloat();
+		container.remoteCacheTimeSeconds = data.readVarLong();
+
+		int tableSize = ReplicatedPermissionsContainer.readCount(data);
+		String[] table = new String[tableSize];
+		for (int i = 0; i < tableSize; i++) {
+			table[i] = data.readString(ReplicatedPermissionsContainer.MAX_STRING_LENGTH);
+		}
+
+		String[] nodes = new String[ReplicatedPermissionsContainer.MAX_NODES];
+		int permissionCount = ReplicatedPermissionsContainer.readCount(data);
+		for (int i = 0; i < permissionCount; i++) {
+			byte flag = data.readByte();
+			int nodeCount = data.readVarInt();
+			if (nodeCount < 1 || nodeCount > nodes.length) {
+				return null;
+			}
+
+			for (int node = 0; node < nodeCount; node++) {
+				int index = data.readVarInt();
+				if (index < 0 || index >= tableSize) {
+					return null;
+				}
+				nodes[node] = table[index];
+			}
+
+			if (sink != null && flag != ReplicatedPermissionsContainer.FLAG_UNSIGNED) {
+				sink.addPermission(nodes, nodeCount, flag == ReplicatedPermissionsContainer.FLAG_GRANTED);
+			} else {
+				container.permissions.add(ReplicatedPermissionsContainer.join(flag, nodes, nodeCount));
+			}
+		}
+
+		// Versions after ours append new data, which we ignore
+		data.skipBytes(data.readableBytes());
+		return container;
+	}
+
+	/**
+	 * Read a count and sanity check it against the remaining data, every
+	 * counted item occupies at least one byte
+	 */
+	private static int readCount(PacketBuffer data) {
+		int count = data.readVarInt();
+		if (count < 0 || count > data.readableBytes()) {
+			throw new IllegalArgumentException("Invalid count in replicated permissions");
+		}
+		return count;
+	}
+
+	private static String join(byte flag, String[] nodes, int nodeCount) {
+		StringBuilder permission = new StringBuilder();
+		if (flag == ReplicatedPermissionsContainer.FLAG_GRANTED) {
+			permission.append('+');
+		} else if (flag == ReplicatedPermissionsContainer.FLAG_NEGATED) {
+			permission.append('-');
+		}
+
+		for (int node = 0; node < nodeCount; node++) {
+			if (node > 0) permission.append('.');
+			permission.append(nodes[node]);
+		}
+
+		return permission.toString();
+	}
 }